@@ -0,0 +1,93 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.service.AnalyticsService;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BillService;
+import com.airtribe.meditrack.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Columnar aggregates against the stream-based equivalents over entity objects
+ * size is the number of appointments and of bills
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsServiceBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private AppointmentService appointmentService;
+    private BillService billService;
+    private AnalyticsService analyticsService;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        appointmentService = BenchmarkData.appointments(size);
+        billService = BenchmarkData.bills(size);
+        analyticsService = new AnalyticsService(appointmentService, billService);
+        // The first day of the fixture's slots
+        from = BenchmarkData.FIRST_SLOT;
+        to = from.plusDays(1);
+    }
+
+    @Benchmark
+    public Map<String, Long> perDoctorStreams() {
+        return appointmentService.getAppointmentsPerDoctor();
+    }
+
+    @Benchmark
+    public Map<String, Long> perDoctorColumns() {
+        return analyticsService.getAppointmentsPerDoctor();
+    }
+
+    @Benchmark
+    public Map<AppointmentStatus, Long> statusInRangeStreams() {
+        return appointmentService.streamAppointments()
+                .filter(appointment -> !appointment.getAppointmentTime().isBefore(from)
+                        && appointment.getAppointmentTime().isBefore(to))
+                .collect(Collectors.groupingBy(Appointment::getStatus, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<AppointmentStatus, Integer> statusInRangeColumns() {
+        return analyticsService.getStatusCounts(from, to);
+    }
+
+    @Benchmark
+    public Map<BillType, Double> pendingByTypeStreams() {
+        return billService.getAllBills().stream()
+                .filter(bill -> !bill.isPaid())
+                .collect(Collectors.groupingBy(Bill::getBillType, Collectors.summingDouble(Bill::calculateTotal)));
+    }
+
+    @Benchmark
+    public Map<BillType, Money> pendingByTypeColumns() {
+        return analyticsService.getPendingByType();
+    }
+}
@@ -0,0 +1,118 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AppointmentService queries; size is the number of appointments
+ * (one doctor per {@value BenchmarkData#PATIENTS_PER_DOCTOR} appointments)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentServiceBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private AppointmentService appointmentService;
+    private int doctors;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        appointmentService = BenchmarkData.appointments(size);
+        doctors = BenchmarkData.doctorCount(size);
+    }
+
+    @Benchmark
+    public Appointment getAppointmentById() throws AppointmentNotFoundException {
+        return appointmentService.getAppointmentById(BenchmarkData.appointmentId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Appointment> getAllAppointments() {
+        return appointmentService.getAllAppointments();
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByPatient() {
+        return appointmentService.getAppointmentsByPatient(BenchmarkData.patientId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByDoctor() {
+        return appointmentService.getAppointmentsByDoctor(BenchmarkData.doctorId(random.nextInt(doctors)));
+    }
+
+    @Benchmark
+    public List<Appointment> getAppointmentsByDoctorInDay() {
+        LocalDateTime from = BenchmarkData.FIRST_SLOT.plusHours(random.nextInt(BenchmarkData.PATIENTS_PER_DOCTOR / 2));
+        return appointmentService.getAppointmentsByDoctor(BenchmarkData.doctorId(random.nextInt(doctors)),
+                from, from.plusHours(8));
+    }
+
+    @Benchmark
+    public boolean isSlotAvailable() {
+        LocalDateTime time = BenchmarkData.FIRST_SLOT.plusMinutes(15L * random.nextInt(2 * BenchmarkData.PATIENTS_PER_DOCTOR));
+        return appointmentService.isSlotAvailable(BenchmarkData.doctorId(random.nextInt(doctors)), time);
+    }
+
+    @Benchmark
+    public LocalDateTime findNextAvailableSlot() {
+        return appointmentService.findNextAvailableSlot(BenchmarkData.doctorId(random.nextInt(doctors)),
+                BenchmarkData.FIRST_SLOT);
+    }
+
+    @Benchmark
+    public int countByStatus() {
+        return appointmentService.countByStatus(AppointmentStatus.CONFIRMED);
+    }
+
+    // What countByStatus replaces
+    @Benchmark
+    public long countByStatusScan() {
+        return appointmentService.streamAppointments()
+                .filter(appointment -> appointment.getStatus() == AppointmentStatus.CONFIRMED)
+                .count();
+    }
+
+    @Benchmark
+    public List<Appointment> getConfirmedInHour() {
+        LocalDateTime from = BenchmarkData.FIRST_SLOT.plusHours(random.nextInt(BenchmarkData.PATIENTS_PER_DOCTOR / 2));
+        return appointmentService.getAppointmentsByStatus(AppointmentStatus.CONFIRMED, from, from.plusHours(1));
+    }
+
+    @Benchmark
+    public Map<String, Long> getAppointmentsPerDoctor() {
+        return appointmentService.getAppointmentsPerDoctor();
+    }
+
+    @Benchmark
+    public Page<Appointment> getFirstAppointmentsPage() {
+        return appointmentService.getAppointmentsPage(null, 50);
+    }
+}
@@ -0,0 +1,133 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BillService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deterministic fixtures shared by the benchmarks
+ * Entity i always has the same ID and attributes, so benchmarks can pick
+ * existing keys by index. One doctor serves every 100 patients and each
+ * patient has one appointment and one bill.
+ */
+final class BenchmarkData {
+    static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2026, 1, 5, 9, 0);
+    static final int PATIENTS_PER_DOCTOR = 100;
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Priya", "Rohan", "Ananya", "Vikram", "Meera", "Arjun", "Kavya", "Ishaan", "Diya"
+    };
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Patel", "Iyer", "Rao", "Kapoor", "Nair", "Gupta", "Reddy", "Menon", "Singh"
+    };
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final BillType[] BILL_TYPES = BillType.values();
+
+    static int doctorCount(int patients) {
+        return Math.max(1, patients / PATIENTS_PER_DOCTOR);
+    }
+
+    static String doctorId(int i) {
+        return "DOC" + i;
+    }
+
+    static String patientId(int i) {
+        return "PAT" + i;
+    }
+
+    static String appointmentId(int i) {
+        return "APT" + i;
+    }
+
+    static String billId(int i) {
+        return "BILL" + i;
+    }
+
+    static String name(int i) {
+        return FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+    }
+
+    static Doctor doctor(int i) {
+        return new Doctor(doctorId(i), "Dr. " + name(i), 30 + i % 35, contact(i),
+                SPECIALIZATIONS[i % SPECIALIZATIONS.length], 500 + (i % 20) * 100);
+    }
+
+    static Patient patient(int i) {
+        return new Patient(patientId(i), name(i), i % 100, contact(i), "None");
+    }
+
+    /**
+     * Appointment of patient i; each doctor's appointments fill consecutive slots
+     */
+    static Appointment appointment(int i, int doctors) {
+        int doctor = i % doctors;
+        LocalDateTime time = FIRST_SLOT.plusMinutes(30L * (i / doctors));
+        return new Appointment(appointmentId(i), patientId(i), doctorId(doctor), time,
+                AppointmentStatus.CONFIRMED);
+    }
+
+    static Bill bill(int i) {
+        Bill bill = new Bill(billId(i), appointmentId(i), BILL_TYPES[i % BILL_TYPES.length],
+                500 + (i % 20) * 100, (i % 7) * 150);
+        if (i % 3 != 0) {
+            bill.setPaid(true);
+        }
+        return bill;
+    }
+
+    static String contact(int i) {
+        return String.format("9%09d", i);
+    }
+
+    static DoctorService doctors(int count) {
+        DoctorService service = new DoctorService();
+        for (int i = 0; i < count; i++) {
+            service.addDoctor(doctor(i));
+        }
+        return service;
+    }
+
+    static PatientService patients(int count) {
+        PatientService service = new PatientService();
+        for (int i = 0; i < count; i++) {
+            service.addPatient(patient(i));
+        }
+        return service;
+    }
+
+    static AppointmentService appointments(int count) {
+        AppointmentService service = new AppointmentService();
+        int doctors = doctorCount(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                service.scheduleAppointment(appointment(i, doctors));
+            }
+        } catch (AppointmentConflictException e) {
+            throw new IllegalStateException("Fixture slots must not overlap", e);
+        }
+        return service;
+    }
+
+    static BillService bills(int count) {
+        BillService service = new BillService();
+        for (int i = 0; i < count; i++) {
+            service.addBill(bill(i));
+        }
+        return service;
+    }
+
+    private BenchmarkData() {
+        // Prevent instantiation
+    }
+}
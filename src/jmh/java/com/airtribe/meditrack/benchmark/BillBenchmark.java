@@ -0,0 +1,59 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Bill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bill total calculations
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BillBenchmark {
+    private Bill[] bills;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bills = new Bill[1024];
+        for (int i = 0; i < bills.length; i++) {
+            bills[i] = BenchmarkData.bill(i);
+        }
+    }
+
+    private Bill nextBill() {
+        Bill bill = bills[next];
+        next = (next + 1) & (bills.length - 1);
+        return bill;
+    }
+
+    @Benchmark
+    public double calculateTotal() {
+        return nextBill().calculateTotal();
+    }
+
+    @Benchmark
+    public double calculateTotalWithCustomTax() {
+        return nextBill().calculateTotal(0.12);
+    }
+
+    @Benchmark
+    public double calculateTotalWithDiscount() {
+        return nextBill().calculateTotal(10, true);
+    }
+}
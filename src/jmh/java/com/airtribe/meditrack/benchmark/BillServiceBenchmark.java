@@ -0,0 +1,94 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.service.BillService;
+import com.airtribe.meditrack.util.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BillService queries and reports; size is the number of bills (a third unpaid)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BillServiceBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private BillService billService;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        billService = BenchmarkData.bills(size);
+    }
+
+    @Benchmark
+    public Bill getBillById() {
+        return billService.getBillById(BenchmarkData.billId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Bill> getAllBills() {
+        return billService.getAllBills();
+    }
+
+    @Benchmark
+    public List<Bill> getBillsByAppointment() {
+        return billService.getBillsByAppointment(BenchmarkData.appointmentId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Bill> getUnpaidBills() {
+        return billService.getUnpaidBills();
+    }
+
+    @Benchmark
+    public List<Bill> getPaidBills() {
+        return billService.getPaidBills();
+    }
+
+    @Benchmark
+    public double getTotalRevenue() {
+        return billService.getTotalRevenue();
+    }
+
+    @Benchmark
+    public double getTotalPending() {
+        return billService.getTotalPending();
+    }
+
+    @Benchmark
+    public double getRevenueByType() {
+        return billService.getRevenueByType(BillType.SURGERY);
+    }
+
+    @Benchmark
+    public int getUnpaidBillCount() {
+        return billService.getUnpaidBillCount();
+    }
+
+    @Benchmark
+    public Page<Bill> getFirstBillsPage() {
+        return billService.getBillsPage(null, 50);
+    }
+}
@@ -0,0 +1,108 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.ConcurrentDataStore;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.LongHashDataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe DataStores under contention from several threads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentDataStoreBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"concurrent", "longhash"})
+    public String store;
+
+    private DataStore<Patient> dataStore;
+    private Patient[] patients;
+    private final AtomicInteger threadSlots = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = store.equals("longhash") ? new LongHashDataStore<>() : new ConcurrentDataStore<>();
+        patients = new Patient[size];
+        for (int i = 0; i < size; i++) {
+            patients[i] = BenchmarkData.patient(i);
+            dataStore.add(patients[i]);
+        }
+    }
+
+    /**
+     * Per-thread random key picker and a private pool of entities that are not in the store
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom();
+        private Patient[] fresh;
+        private int nextFresh;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentDataStoreBenchmark benchmark) {
+            fresh = new Patient[1024];
+            int base = benchmark.size + benchmark.threadSlots.getAndIncrement() * fresh.length;
+            for (int i = 0; i < fresh.length; i++) {
+                fresh[i] = BenchmarkData.patient(base + i);
+            }
+        }
+
+        int existing(int size) {
+            return random.nextInt(size);
+        }
+
+        Patient fresh() {
+            Patient patient = fresh[nextFresh];
+            nextFresh = (nextFresh + 1) % fresh.length;
+            return patient;
+        }
+    }
+
+    @Benchmark
+    public Patient getById(Keys keys) {
+        return dataStore.getById(patients[keys.existing(size)].getId());
+    }
+
+    @Benchmark
+    public void update(Keys keys) {
+        dataStore.update(patients[keys.existing(size)]);
+    }
+
+    @Benchmark
+    public Patient computeIfPresent(Keys keys) {
+        return dataStore.computeIfPresent(patients[keys.existing(size)].getId(), (id, patient) -> patient);
+    }
+
+    // Add a new entity and delete it again, so the store size stays constant
+    @Benchmark
+    public boolean addIfAbsentThenDelete(Keys keys) {
+        Patient patient = keys.fresh();
+        boolean added = dataStore.addIfAbsent(patient);
+        dataStore.delete(patient.getId());
+        return added;
+    }
+}
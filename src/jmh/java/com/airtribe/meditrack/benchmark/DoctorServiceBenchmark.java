@@ -0,0 +1,80 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.util.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DoctorService queries; size is the number of doctors
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorServiceBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private DoctorService doctorService;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        doctorService = BenchmarkData.doctors(size);
+    }
+
+    @Benchmark
+    public Doctor getDoctorById() {
+        return doctorService.getDoctorById(BenchmarkData.doctorId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Doctor> getAllDoctors() {
+        return doctorService.getAllDoctors();
+    }
+
+    @Benchmark
+    public List<Doctor> searchDoctorsByName() {
+        return doctorService.searchDoctors("Meera Kap");
+    }
+
+    @Benchmark
+    public List<Doctor> searchDoctorsById() {
+        return doctorService.searchDoctors(BenchmarkData.doctorId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public Collection<Doctor> getDoctorsBySpecialization() {
+        return doctorService.getDoctorsBySpecialization(Specialization.NEUROLOGIST);
+    }
+
+    @Benchmark
+    public double getAverageConsultationFee() {
+        return doctorService.getAverageConsultationFee();
+    }
+
+    @Benchmark
+    public Page<Doctor> getFirstDoctorsPage() {
+        return doctorService.getDoctorsPage(null, 50);
+    }
+}
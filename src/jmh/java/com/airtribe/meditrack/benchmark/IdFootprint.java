@@ -0,0 +1,94 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.util.DataStore;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Retained heap of an appointment store with string IDs versus packed long IDs
+ * Not a JMH benchmark: it fills one layout at a time, forces GC and reports the
+ * heap still in use. The string layout mirrors the previous Appointment and
+ * DataStore (three ID strings per appointment, String-keyed map and key set),
+ * with every ID a separate String as it is after CSV parsing.
+ * Usage: java -Xmx16g -cp target/benchmarks.jar com.airtribe.meditrack.benchmark.IdFootprint [appointments]
+ */
+public final class IdFootprint {
+    private static final int DEFAULT_APPOINTMENTS = 10_000_000;
+
+    // Field-for-field copy of Appointment before IDs were packed
+    @SuppressWarnings("unused")
+    private static final class StringIdAppointment {
+        private final String id;
+        private final String patientId;
+        private final String doctorId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final LocalDateTime updatedAt = LocalDateTime.now();
+        private final LocalDateTime appointmentTime;
+        private final AppointmentStatus status;
+        private final Map<String, String> notes = new HashMap<>();
+
+        StringIdAppointment(String id, String patientId, String doctorId, LocalDateTime appointmentTime,
+                            AppointmentStatus status) {
+            this.id = id;
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.appointmentTime = appointmentTime;
+            this.status = status;
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_APPOINTMENTS;
+        int doctors = BenchmarkData.doctorCount(count);
+
+        long baseline = usedHeap();
+        Map<String, StringIdAppointment> byId = new HashMap<>();
+        NavigableSet<String> keys = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            Appointment source = BenchmarkData.appointment(i, doctors);
+            String id = source.getId();
+            byId.put(id, new StringIdAppointment(id, source.getPatientId(), source.getDoctorId(),
+                    source.getAppointmentTime(), source.getStatus()));
+            keys.add(id);
+        }
+        long stringIds = usedHeap() - baseline;
+        report("String IDs", stringIds, count, byId.size() + keys.size() > 0);
+        byId = null;
+        keys = null;
+
+        baseline = usedHeap();
+        DataStore<Appointment> store = new DataStore<>();
+        for (int i = 0; i < count; i++) {
+            store.add(BenchmarkData.appointment(i, doctors));
+        }
+        long packedIds = usedHeap() - baseline;
+        report("Packed IDs", packedIds, count, store.size() > 0);
+
+        System.out.printf("Saved: %.1f%% (%,d bytes)%n", 100.0 * (stringIds - packedIds) / stringIds,
+                stringIds - packedIds);
+    }
+
+    private static void report(String layout, long bytes, int count, boolean live) {
+        // live keeps the structure reachable until after it has been measured
+        System.out.printf("%-11s %,15d bytes  %6.1f bytes/appointment%s%n", layout, bytes,
+                (double) bytes / count, live ? "" : " (empty)");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private IdFootprint() {
+        // Prevent instantiation
+    }
+}
@@ -0,0 +1,64 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.IdType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID generation alone and with every available core generating at once
+ * The numeric variants skip building the ID string; the reserve variants
+ * go to the shared counter on every call, as ID generation did before leasing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdGeneratorBenchmark {
+    private static final IdGenerator GENERATOR = IdGenerator.getInstance();
+
+    @Benchmark
+    @Threads(1)
+    public String newPatientId() {
+        return IdGenerator.newPatientId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String newPatientIdContended() {
+        return IdGenerator.newPatientId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String newAppointmentIdContended() {
+        return IdGenerator.newAppointmentId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextPatientNumber() {
+        return GENERATOR.nextNumber(IdType.PATIENT);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long nextPatientNumberContended() {
+        return GENERATOR.nextNumber(IdType.PATIENT);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long reserveOneContended() {
+        return GENERATOR.reserve(IdType.PATIENT, 1);
+    }
+}
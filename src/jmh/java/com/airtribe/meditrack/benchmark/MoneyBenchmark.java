@@ -0,0 +1,83 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paid revenue over all bills: the old stream of doubles against primitive columns
+ * size is the number of bills (a third unpaid)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    private static final byte PAID = 1;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Bill> bills;
+    private double[] totals;
+    private long[] totalPaise;
+    private byte[] paid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bills = new ArrayList<>(size);
+        totals = new double[size];
+        totalPaise = new long[size];
+        paid = new byte[size];
+        for (int i = 0; i < size; i++) {
+            Bill bill = BenchmarkData.bill(i);
+            bills.add(bill);
+            totals[i] = bill.calculateTotal();
+            totalPaise[i] = bill.getTotalPaise();
+            paid[i] = bill.isPaid() ? PAID : 0;
+        }
+    }
+
+    @Benchmark
+    public double streamOfDoubles() {
+        return bills.stream().filter(Bill::isPaid).mapToDouble(Bill::calculateTotal).sum();
+    }
+
+    @Benchmark
+    public double doubleColumn() {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            if (paid[i] == PAID) {
+                total += totals[i];
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long paiseColumn() {
+        return Money.sumWhere(totalPaise, paid, PAID, 0, size);
+    }
+
+    @Benchmark
+    public long paiseColumnUnfiltered() {
+        return Money.sum(totalPaise, 0, size);
+    }
+}
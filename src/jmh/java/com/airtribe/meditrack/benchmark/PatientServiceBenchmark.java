@@ -0,0 +1,93 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PatientService queries; size is the number of patients
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientServiceBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private PatientService patientService;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        patientService = BenchmarkData.patients(size);
+    }
+
+    @Benchmark
+    public Patient getPatientById() {
+        return patientService.getPatientById(BenchmarkData.patientId(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Patient> getAllPatients() {
+        return patientService.getAllPatients();
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientByKeyword() {
+        return patientService.searchPatient("Ishaan Men");
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientByContact() {
+        return patientService.searchPatient(BenchmarkData.contact(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public Patient searchPatientByPartialId() {
+        return patientService.searchPatient(String.valueOf(random.nextInt(size)), false);
+    }
+
+    @Benchmark
+    public List<Patient> searchPatientByAgeRange() {
+        return patientService.searchPatient(30, 35);
+    }
+
+    @Benchmark
+    public int countPatientsByAgeRange() {
+        return patientService.countPatients(18, 64);
+    }
+
+    @Benchmark
+    public List<Patient> autocompleteName() {
+        return patientService.autocomplete("kav", 10);
+    }
+
+    @Benchmark
+    public List<Patient> autocompletePhone() {
+        return patientService.autocomplete("90000", 10);
+    }
+
+    @Benchmark
+    public Page<Patient> getFirstPatientsPage() {
+        return patientService.getPatientsPage(null, 50);
+    }
+}
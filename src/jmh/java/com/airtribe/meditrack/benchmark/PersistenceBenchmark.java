@@ -0,0 +1,114 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BillService;
+import com.airtribe.meditrack.service.DataLoadService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.service.PersistenceService;
+import com.airtribe.meditrack.util.CSVUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Whole-dataset CSV and binary snapshot load/save
+ * size is the number of patients; there are as many appointments and bills,
+ * and one doctor per {@value BenchmarkData#PATIENTS_PER_DOCTOR} patients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Path directory;
+    private DoctorService doctorService;
+    private PatientService patientService;
+    private AppointmentService appointmentService;
+    private BillService billService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("meditrack-bench");
+        doctorService = BenchmarkData.doctors(BenchmarkData.doctorCount(size));
+        patientService = BenchmarkData.patients(size);
+        appointmentService = BenchmarkData.appointments(size);
+        billService = BenchmarkData.bills(size);
+        saveCSV();
+        saveSnapshot();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public DataLoadService.LoadReport loadCSV() throws IOException {
+        DataLoadService loader = new DataLoadService(new DoctorService(), new PatientService(),
+                new AppointmentService(), new BillService());
+        return loader.loadFromCSV(file("doctors.csv"), file("patients.csv"),
+                file("appointments.csv"), file("bills.csv"));
+    }
+
+    @Benchmark
+    public void saveCSV() throws IOException {
+        CSVUtil.writeCSV(file("doctors.csv"),
+                doctorService.streamDoctors().map(Doctor::toCSVRecord).collect(Collectors.toList()));
+        CSVUtil.writeCSV(file("patients.csv"),
+                patientService.streamPatients().map(Patient::toCSVRecord).collect(Collectors.toList()));
+        CSVUtil.writeCSV(file("appointments.csv"),
+                appointmentService.streamAppointments().map(Appointment::toCSVRecord).collect(Collectors.toList()));
+        CSVUtil.writeCSV(file("bills.csv"),
+                billService.streamBills().map(Bill::toCSVRecord).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public long loadSnapshot() throws IOException {
+        PersistenceService persistence = new PersistenceService(new DoctorService(), new PatientService(),
+                new AppointmentService(), new BillService());
+        return persistence.loadSnapshot(directory.resolve("meditrack.snapshot"));
+    }
+
+    @Benchmark
+    public long saveSnapshot() throws IOException {
+        PersistenceService persistence = new PersistenceService(doctorService, patientService,
+                appointmentService, billService);
+        return persistence.saveSnapshot(directory.resolve("meditrack.snapshot"));
+    }
+
+    private String file(String name) {
+        return directory.resolve(name).toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.ConcurrentDataStore;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.LongHashDataStore;
+
+import java.util.function.Supplier;
+
+/**
+ * Heap retained by each DataStore implementation per stored entity
+ * Not a JMH benchmark: the entities are created first and excluded, then each
+ * store is filled with them in turn and measured after GC, so only the store's
+ * own structure (map, key set, boxes, table arrays) is counted.
+ * Usage: java -Xmx8g -cp target/benchmarks.jar com.airtribe.meditrack.benchmark.StoreFootprint [entities]
+ */
+public final class StoreFootprint {
+    private static final int DEFAULT_ENTITIES = 1_000_000;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENTITIES;
+        Patient[] patients = new Patient[count];
+        for (int i = 0; i < count; i++) {
+            patients[i] = BenchmarkData.patient(i);
+        }
+        measure("plain", DataStore::new, patients);
+        measure("concurrent", ConcurrentDataStore::new, patients);
+        measure("longhash", LongHashDataStore::new, patients);
+    }
+
+    private static void measure(String name, Supplier<DataStore<Patient>> factory, Patient[] patients) {
+        long baseline = usedHeap();
+        DataStore<Patient> store = factory.get();
+        for (Patient patient : patients) {
+            store.add(patient);
+        }
+        // One page forces the sorted key copy the open-addressing store builds lazily
+        store.page(null, 1);
+        long bytes = usedHeap() - baseline;
+        System.out.printf("%-11s %,15d bytes  %6.1f bytes/entry (%,d entries)%n", name, bytes,
+                (double) bytes / patients.length, store.size());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private StoreFootprint() {
+        // Prevent instantiation
+    }
+}
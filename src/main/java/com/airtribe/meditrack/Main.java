@@ -9,6 +9,7 @@ import com.airtribe.meditrack.exception.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -23,14 +24,39 @@ public class Main {
     private static final PatientService patientService = new PatientService();
     private static final AppointmentService appointmentService = new AppointmentService();
     private static final BillService billService = new BillService();
+    private static final PersistenceService persistenceService = new PersistenceService(
+            doctorService, patientService, appointmentService, billService);
+    private static final AnalyticsService analyticsService = new AnalyticsService(appointmentService, billService);
     private static boolean loadData = false;
 
     public static void main(String[] args) {
         // Check for command-line arguments
-        if (args.length > 0 && args[0].equals("--loadData")) {
+        List<String> options = java.util.Arrays.asList(args);
+        boolean useWal = options.contains("--wal");
+        if (useWal) {
+            System.out.println("Recovering from snapshot and write-ahead log...");
+            loadData = recover();
+        }
+        String generate = options.stream().filter(o -> o.startsWith("--generate")).findFirst().orElse(null);
+        if (generate != null && loadData) {
+            // Generated IDs start from fixed numbers and would collide with the recovered ones
+            System.out.println("Skipping " + generate + ": the write-ahead log already recovered data");
+            generate = null;
+        }
+        if (options.contains("--loadData")) {
             loadData = true;
             System.out.println("Loading data from CSV files...");
             loadDataFromCSV();
+        } else if (generate != null) {
+            loadData = true;
+            generateData(generate);
+        } else if (options.contains("--loadSnapshot") && !useWal) {
+            loadData = true;
+            System.out.println("Loading data from snapshot...");
+            loadSnapshot();
+        }
+        if (useWal) {
+            enableWriteAheadLog(options.contains("--loadData") || generate != null);
         }
 
         printWelcomeBanner();
@@ -60,6 +86,9 @@ public class Main {
                 case 6:
                     saveDataToCSV();
                     break;
+                case 7:
+                    saveSnapshot();
+                    break;
                 case 0:
                     running = false;
                     System.out.println("\n" + "=".repeat(50));
@@ -71,6 +100,7 @@ public class Main {
             }
         }
 
+        closeWriteAheadLog();
         scanner.close();
     }
 
@@ -91,6 +121,7 @@ public class Main {
         System.out.println("4. Billing Management");
         System.out.println("5. Analytics & Reports");
         System.out.println("6. Save Data to CSV");
+        System.out.println("7. Save Binary Snapshot");
         System.out.println("0. Exit");
         System.out.println("=".repeat(50));
     }
@@ -189,7 +220,7 @@ public class Main {
 
         if (choice >= 0 && choice < specs.length) {
             Specialization spec = specs[choice];
-            List<Doctor> doctors = doctorService.getDoctorsBySpecialization(spec);
+            Collection<Doctor> doctors = doctorService.getDoctorsBySpecialization(spec);
 
             System.out.println("\n--- Doctors in " + spec + " ---");
             if (doctors.isEmpty()) {
@@ -250,6 +281,7 @@ public class Main {
             System.out.println("6. Demonstrate Deep Copy");
             System.out.println("7. Update Patient");
             System.out.println("8. Delete Patient");
+            System.out.println("9. Quick Lookup (name/phone/ID prefix)");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter choice: ");
@@ -263,6 +295,7 @@ public class Main {
                 case 6: demonstrateDeepCopy(); break;
                 case 7: updatePatient(); break;
                 case 8: deletePatient(); break;
+                case 9: autocompletePatient(); break;
                 case 0: back = true; break;
                 default: System.out.println("Invalid choice!");
             }
@@ -299,14 +332,7 @@ public class Main {
 
     private static void viewAllPatients() {
         System.out.println("\n--- ALL PATIENTS ---");
-        List<Patient> patients = patientService.getAllPatients();
-        if (patients.isEmpty()) {
-            System.out.println("No patients found!");
-        } else {
-            for (Patient patient : patients) {
-                System.out.println(patient);
-            }
-        }
+        printPages(patientService::getPatientsPage, "No patients found!");
     }
 
     private static void searchPatientByKeyword() {
@@ -334,6 +360,20 @@ public class Main {
         }
     }
 
+    private static void autocompletePatient() {
+        String prefix = getStringInput("Start typing name, phone or ID: ");
+        List<Patient> patients = patientService.autocomplete(prefix, PrefixIndex.MAX_RESULTS);
+
+        if (patients.isEmpty()) {
+            System.out.println("No matching patients!");
+        } else {
+            System.out.println("\n--- SUGGESTIONS (most recently updated first) ---");
+            for (Patient patient : patients) {
+                System.out.println(patient.getId() + " | " + patient.getName() + " | " + patient.getContact());
+            }
+        }
+    }
+
     private static void searchPatientByAge() {
         int minAge = getIntInput("Enter minimum age: ");
         int maxAge = getIntInput("Enter maximum age: ");
@@ -417,6 +457,7 @@ public class Main {
             System.out.println("5. Update Appointment Status");
             System.out.println("5. Cancel Appointment");
             System.out.println("7. Demonstrate Appointment Clone");
+            System.out.println("8. View Doctor Schedule");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter choice: ");
@@ -429,6 +470,7 @@ public class Main {
                 case 5: updateAppointmentStatus(); break;
                 case 6: cancelAppointment(); break;
                 case 7: demonstrateAppointmentClone(); break;
+                case 8: viewDoctorSchedule(); break;
                 case 0: back = true; break;
                 default: System.out.println("Invalid choice!");
             }
@@ -465,6 +507,34 @@ public class Main {
             System.out.println("\n✓ Appointment scheduled successfully!");
             System.out.println(appointment);
 
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format!");
+        } catch (AppointmentConflictException e) {
+            System.out.println("Error: " + e.getMessage());
+            LocalDateTime next = appointmentService.findNextAvailableSlot(doctorId,
+                    LocalDateTime.parse(dateTimeStr, DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")));
+            System.out.println("Next available slot: " + next.format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")));
+        }
+    }
+
+    private static void viewDoctorSchedule() {
+        String doctorId = getStringInput("Enter doctor ID: ");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+        try {
+            LocalDateTime from = LocalDateTime.parse(getStringInput("From (dd-MM-yyyy HH:mm): "), formatter);
+            LocalDateTime to = LocalDateTime.parse(getStringInput("To (dd-MM-yyyy HH:mm): "), formatter);
+            List<Appointment> appointments = appointmentService.getAppointmentsByDoctor(doctorId, from, to);
+
+            if (appointments.isEmpty()) {
+                System.out.println("No bookings in this period!");
+            } else {
+                for (Appointment apt : appointments) {
+                    System.out.println(apt);
+                }
+            }
+            System.out.println("Next available slot: "
+                    + appointmentService.findNextAvailableSlot(doctorId, from).format(formatter));
         } catch (DateTimeParseException e) {
             System.out.println("Invalid date format!");
         }
@@ -472,14 +542,25 @@ public class Main {
 
     private static void viewAllAppointments() {
         System.out.println("\n--- ALL APPOINTMENTS ---");
-        List<Appointment> appointments = appointmentService.getAllAppointments();
+        printPages(appointmentService::getAppointmentsPage, "No appointments found!");
+    }
 
-        if (appointments.isEmpty()) {
-            System.out.println("No appointments found!");
-        } else {
-            for (Appointment apt : appointments) {
-                System.out.println(apt);
+    // Print one page at a time, fetching the next only when asked
+    private static <T> void printPages(java.util.function.BiFunction<String, Integer, Page<T>> fetchPage,
+                                       String emptyMessage) {
+        Page<T> page = fetchPage.apply(null, Constants.PAGE_SIZE);
+        if (page.items().isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+        while (true) {
+            for (T item : page.items()) {
+                System.out.println(item);
             }
+            if (!page.hasNext() || !getStringInput("Show next page? (yes/no): ").equalsIgnoreCase("yes")) {
+                return;
+            }
+            page = fetchPage.apply(page.nextCursor(), Constants.PAGE_SIZE);
         }
     }
 
@@ -532,7 +613,7 @@ public class Main {
 
             System.out.println("✓ Appointment status updated!");
 
-        } catch (AppointmentNotFoundException e) {
+        } catch (AppointmentNotFoundException | AppointmentConflictException e) {
             System.out.println("Error: " + e.getMessage());
         }
     }
@@ -612,6 +693,15 @@ public class Main {
 
         int choice = getIntInput("Select bill type: ");
         String appointmentId = getStringInput("Enter appointment ID: ");
+        if (!appointmentService.appointmentExists(appointmentId)) {
+            System.out.println("Appointment not found!");
+            return;
+        }
+        List<Bill> existing = billService.getBillsByAppointment(appointmentId);
+        if (!existing.isEmpty()) {
+            System.out.println("Note: appointment already has " + existing.size() + " bill(s):");
+            existing.forEach(b -> System.out.println("  " + b));
+        }
 
         Bill bill = null;
 
@@ -740,6 +830,7 @@ public class Main {
             System.out.println("\n--- ANALYTICS & REPORTS ---");
             System.out.println("1. Appointment Analytics");
             System.out.println("2. Revenue Report");
+            System.out.println("3. Patient Age Distribution");
             System.out.println("0. Back to Main Menu");
 
             int choice = getIntInput("Enter choice: ");
@@ -747,6 +838,7 @@ public class Main {
             switch (choice) {
                 case 1: showAppointmentAnalytics(); break;
                 case 2: showRevenueReport(); break;
+                case 3: showAgeDistribution(); break;
                 case 0: back = true; break;
                 default: System.out.println("Invalid choice!");
             }
@@ -754,26 +846,58 @@ public class Main {
     }
 
     private static void showAppointmentAnalytics() {
-        System.out.println("\n--- APPOINTMENT ANALYTICS (Streams) ---");
+        System.out.println("\n--- APPOINTMENT ANALYTICS ---");
 
         System.out.println("\nTotal Appointments: " + appointmentService.getAppointmentCount());
 
+        System.out.println("\nBy Status:");
+        appointmentService.getStatusCounts().forEach((status, count) ->
+                System.out.println("  " + status + ": " + count));
+
+        LocalDateTime today = LocalDateTime.now().toLocalDate().atStartOfDay();
+        System.out.println("\nToday by Status:");
+        analyticsService.getStatusCounts(today, today.plusDays(1)).forEach((status, count) -> {
+            if (count > 0) {
+                System.out.println("  " + status + ": " + count);
+            }
+        });
+
         System.out.println("\nAppointments per Doctor:");
-        Map<String, Long> perDoctor = appointmentService.getAppointmentsPerDoctor();
+        Map<String, Long> perDoctor = analyticsService.getAppointmentsPerDoctor();
+        Map<String, Long> completed = analyticsService.getAppointmentsPerDoctor(AppointmentStatus.COMPLETED);
         perDoctor.forEach((doctorId, count) ->
-                System.out.println("  " + doctorId + ": " + count + " appointments"));
+                System.out.println("  " + doctorId + ": " + count + " appointments, "
+                        + completed.getOrDefault(doctorId, 0L) + " completed"));
+    }
+
+    private static void showAgeDistribution() {
+        System.out.println("\n--- PATIENT AGE DISTRIBUTION ---");
+
+        for (int from = Constants.MIN_AGE; from <= Constants.MAX_AGE; from += 10) {
+            int to = Math.min(from + 9, Constants.MAX_AGE);
+            int count = patientService.countPatients(from, to);
+            if (count > 0) {
+                System.out.printf("  %3d-%-3d: %d%n", from, to, count);
+            }
+        }
     }
 
     private static void showRevenueReport() {
         System.out.println("\n--- REVENUE REPORT ---");
 
         System.out.println("Total Bills: " + billService.getBillCount());
-        System.out.println("Paid Bills: " + billService.getPaidBills().size());
-        System.out.println("Unpaid Bills: " + billService.getUnpaidBills().size());
+        System.out.println("Paid Bills: " + billService.getPaidBillCount());
+        System.out.println("Unpaid Bills: " + billService.getUnpaidBillCount());
         System.out.println("\nTotal Revenue (Paid): ₹" +
                 String.format("%.2f", billService.getTotalRevenue()));
         System.out.println("Total Pending: ₹" +
                 String.format("%.2f", billService.getTotalPending()));
+
+        System.out.println("\nBy Bill Type (Paid / Pending):");
+        for (BillType type : BillType.values()) {
+            System.out.printf("  %-18s ₹%.2f / ₹%.2f%n", type,
+                    billService.getRevenueByType(type), billService.getPendingByType(type));
+        }
     }
 
     // ==================== DATA PERSISTENCE ====================
@@ -788,8 +912,8 @@ public class Main {
             }
 
             // Save doctors
-            List<String[]> doctorRecords = doctorService.getAllDoctors().stream()
-                    .map(d -> d.toCSV().split(","))
+            List<String[]> doctorRecords = doctorService.streamDoctors()
+                    .map(Doctor::toCSVRecord)
                     .collect(java.util.stream.Collectors.toList());
             if (!doctorRecords.isEmpty()) {
                 CSVUtil.writeCSV(Constants.DOCTORS_FILE, doctorRecords);
@@ -797,8 +921,8 @@ public class Main {
             }
 
             // Save patients
-            List<String[]> patientRecords = patientService.getAllPatients().stream()
-                    .map(p -> p.toCSV().split(","))
+            List<String[]> patientRecords = patientService.streamPatients()
+                    .map(Patient::toCSVRecord)
                     .collect(java.util.stream.Collectors.toList());
             if (!patientRecords.isEmpty()) {
                 CSVUtil.writeCSV(Constants.PATIENTS_FILE, patientRecords);
@@ -806,8 +930,8 @@ public class Main {
             }
 
             // Save appointments
-            List<String[]> appointmentRecords = appointmentService.getAllAppointments().stream()
-                    .map(a -> a.toCSV().split(","))
+            List<String[]> appointmentRecords = appointmentService.streamAppointments()
+                    .map(Appointment::toCSVRecord)
                     .collect(java.util.stream.Collectors.toList());
             if (!appointmentRecords.isEmpty()) {
                 CSVUtil.writeCSV(Constants.APPOINTMENTS_FILE, appointmentRecords);
@@ -815,8 +939,8 @@ public class Main {
             }
 
             // Save bills
-            List<String[]> billRecords = billService.getAllBills().stream()
-                    .map(b -> b.toCSV().split(","))
+            List<String[]> billRecords = billService.streamBills()
+                    .map(Bill::toCSVRecord)
                     .collect(java.util.stream.Collectors.toList());
             if (!billRecords.isEmpty()) {
                 CSVUtil.writeCSV(Constants.BILLS_FILE, billRecords);
@@ -830,47 +954,108 @@ public class Main {
         }
     }
 
-    private static void loadDataFromCSV() {
+    private static void saveSnapshot() {
+        System.out.println("\n--- SAVING BINARY SNAPSHOT ---");
+
         try {
-            // Load doctors
-            if (new java.io.File(Constants.DOCTORS_FILE).exists()) {
-                List<String[]> records = CSVUtil.readCSV(Constants.DOCTORS_FILE);
-                for (String[] record : records) {
-                    Doctor doctor = Doctor.fromCSV(String.join(",", record));
-                    if (doctor != null) doctorService.addDoctor(doctor);
-                }
-                System.out.println("✓ Loaded " + records.size() + " doctors");
-            }
+            java.nio.file.Files.createDirectories(java.nio.file.Path.of(Constants.DATA_DIR));
+            long start = System.nanoTime();
+            long records = persistenceService.saveSnapshot(java.nio.file.Path.of(Constants.SNAPSHOT_FILE));
+            System.out.println("✓ Saved " + records + " records to " + Constants.SNAPSHOT_FILE
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            System.out.println("Error saving snapshot: " + e.getMessage());
+        }
+    }
 
-            // Load patients
-            if (new java.io.File(Constants.PATIENTS_FILE).exists()) {
-                List<String[]> records = CSVUtil.readCSV(Constants.PATIENTS_FILE);
-                for (String[] record : records) {
-                    Patient patient = Patient.fromCSV(String.join(",", record));
-                    if (patient != null) patientService.addPatient(patient);
-                }
-                System.out.println("✓ Loaded " + records.size() + " patients");
-            }
+    private static void loadSnapshot() {
+        try {
+            long start = System.nanoTime();
+            long records = persistenceService.loadSnapshot(java.nio.file.Path.of(Constants.SNAPSHOT_FILE));
+            System.out.println("✓ Loaded " + records + " records from " + Constants.SNAPSHOT_FILE
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (Exception e) {
+            System.out.println("Error loading snapshot: " + e.getMessage());
+        }
+    }
 
-            // Load appointments
-            if (new java.io.File(Constants.APPOINTMENTS_FILE).exists()) {
-                List<String[]> records = CSVUtil.readCSV(Constants.APPOINTMENTS_FILE);
-                for (String[] record : records) {
-                    Appointment apt = Appointment.fromCSV(String.join(",", record));
-                    if (apt != null) appointmentService.scheduleAppointment(apt);
-                }
-                System.out.println("✓ Loaded " + records.size() + " appointments");
+    private static boolean recover() {
+        try {
+            long start = System.nanoTime();
+            long records = persistenceService.recover(java.nio.file.Path.of(Constants.SNAPSHOT_FILE),
+                    java.nio.file.Path.of(Constants.WAL_FILE));
+            System.out.println("✓ Recovered " + records + " records in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return records > 0;
+        } catch (Exception e) {
+            System.out.println("Error recovering data: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void enableWriteAheadLog(boolean compactNow) {
+        try {
+            java.nio.file.Files.createDirectories(java.nio.file.Path.of(Constants.DATA_DIR));
+            persistenceService.enableWriteAheadLog(java.nio.file.Path.of(Constants.SNAPSHOT_FILE),
+                    java.nio.file.Path.of(Constants.WAL_FILE));
+            if (compactNow) {
+                // Data loaded outside the log must reach the snapshot before it can be recovered
+                persistenceService.compact();
             }
+            System.out.println("✓ Write-ahead log enabled: " + Constants.WAL_FILE);
+        } catch (Exception e) {
+            System.out.println("Error enabling write-ahead log: " + e.getMessage());
+        }
+    }
 
-            // Load bills
-            if (new java.io.File(Constants.BILLS_FILE).exists()) {
-                List<String[]> records = CSVUtil.readCSV(Constants.BILLS_FILE);
-                for (String[] record : records) {
-                    Bill bill = Bill.fromCSV(String.join(",", record));
-                    if (bill != null) billService.addBill(bill);
+    private static void closeWriteAheadLog() {
+        try {
+            persistenceService.close();
+        } catch (Exception e) {
+            System.out.println("Error closing write-ahead log: " + e.getMessage());
+        }
+    }
+
+    // --generate or --generate=<appointments>
+    private static void generateData(String option) {
+        long appointments = option.contains("=")
+                ? Long.parseLong(option.substring(option.indexOf('=') + 1))
+                : Constants.DEFAULT_GENERATED_APPOINTMENTS;
+        System.out.println("Generating " + appointments + " synthetic appointments...");
+        long start = System.nanoTime();
+        DataLoadService loader = new DataLoadService(doctorService, patientService,
+                appointmentService, billService);
+        try {
+            long records = loader.loadGenerated(DataGenerator.forAppointments(appointments, DataGenerator.DEFAULT_SEED));
+            System.out.println("✓ Generated " + records + " records in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IllegalStateException e) {
+            System.out.println("Error generating data: " + e.getMessage());
+        }
+    }
+
+    private static void loadDataFromCSV() {
+        try {
+            DataLoadService loader = new DataLoadService(doctorService, patientService,
+                    appointmentService, billService);
+            DataLoadService.LoadReport report = loader.loadFromCSV();
+
+            for (DataLoadService.FileResult file : report.files()) {
+                System.out.println("✓ Loaded " + file.loaded() + " records from " + file.file()
+                        + " in " + file.millis() + " ms");
+                if (file.rejected() > 0) {
+                    System.out.println("  Skipped " + file.rejected() + " invalid records");
                 }
-                System.out.println("✓ Loaded " + records.size() + " bills");
             }
+            if (report.orphanAppointments() > 0) {
+                System.out.println("  Warning: " + report.orphanAppointments()
+                        + " appointments reference unknown doctors or patients");
+            }
+            if (report.orphanBills() > 0) {
+                System.out.println("  Warning: " + report.orphanBills() + " bills reference unknown appointments");
+            }
+            System.out.println("✓ Validation took " + report.validateMillis() + " ms, total load "
+                    + report.totalMillis() + " ms");
 
         } catch (Exception e) {
             System.out.println("Error loading data: " + e.getMessage());
@@ -13,10 +13,39 @@ public class Constants {
     public static final String PATIENTS_FILE = "data/patients.csv";
     public static final String APPOINTMENTS_FILE = "data/appointments.csv";
     public static final String BILLS_FILE = "data/bills.csv";
+    public static final String SNAPSHOT_FILE = "data/meditrack.snapshot";
+    public static final String WAL_FILE = "data/meditrack.wal";
+    
+    // Write-ahead log: how long the flusher gathers writes per fsync, and how many
+    // records it accepts before folding them into a new snapshot
+    public static final long WAL_GROUP_COMMIT_MILLIS = 2;
+    public static final long WAL_COMPACTION_THRESHOLD = 10_000;
+    
+    // Files above this size are split into chunks and parsed in parallel
+    public static final long PARALLEL_PARSE_THRESHOLD_BYTES = 64L * 1024 * 1024;
+    
+    // Valid patient/doctor age range (inclusive)
+    public static final int MIN_AGE = 0;
+    public static final int MAX_AGE = 150;
+    
+    // Appointments generated by --generate without an explicit count
+    public static final long DEFAULT_GENERATED_APPOINTMENTS = 10_000;
+    
+    // IDs each thread takes from a shared counter at once
+    public static final int ID_BLOCK_SIZE = 1000;
+    
+    // Rows per page when listing all patients/appointments
+    public static final int PAGE_SIZE = 20;
+    
+    // Scheduling
+    public static final int APPOINTMENT_SLOT_MINUTES = 30;
     
     // Tax rates
     public static final double TAX_RATE = 0.18; // 18% GST
     public static final double SERVICE_CHARGE = 50.0;
+    // The same, in the exact integer units bills compute with
+    public static final long TAX_RATE_BASIS_POINTS = Math.round(TAX_RATE * 10_000);
+    public static final long SERVICE_CHARGE_PAISE = Math.round(SERVICE_CHARGE * 100);
     
     // Application info
     public static final String APP_NAME = "MediTrack";
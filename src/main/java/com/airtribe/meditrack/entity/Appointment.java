@@ -1,13 +1,21 @@
 package com.airtribe.meditrack.entity;
 
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.EntityId;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Appointment extends MedicalEntity implements Cloneable {
-    private String patientId;
-    private String doctorId;
+    private static final DateTimeFormatter CSV_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
+    // Foreign keys in compact form; formatted back to strings only by the getters.
+    // References never register IDs: one with no key (unknown, non-canonical) is kept as text.
+    private long patientKey;
+    private long doctorKey;
+    private String patientRef;
+    private String doctorRef;
     private LocalDateTime appointmentTime;
     private AppointmentStatus status;
     private Map<String, String> notes; // For demonstrating deep copy
@@ -15,8 +23,10 @@ public class Appointment extends MedicalEntity implements Cloneable {
     public Appointment(String appointmentId, String patientId, String doctorId, 
                        LocalDateTime appointmentTime, AppointmentStatus status) {
         super(appointmentId);
-        this.patientId = patientId;
-        this.doctorId = doctorId;
+        this.patientKey = EntityId.lookup(patientId);
+        this.doctorKey = EntityId.lookup(doctorId);
+        this.patientRef = patientKey == EntityId.NONE ? patientId : null;
+        this.doctorRef = doctorKey == EntityId.NONE ? doctorId : null;
         this.appointmentTime = appointmentTime;
         this.status = status;
         this.notes = new HashMap<>();
@@ -24,8 +34,10 @@ public class Appointment extends MedicalEntity implements Cloneable {
 
     // Getters
     public String getAppointmentId() { return id; }
-    public String getPatientId() { return patientId; }
-    public String getDoctorId() { return doctorId; }
+    public String getPatientId() { return patientRef != null ? patientRef : EntityId.decode(patientKey); }
+    public String getDoctorId() { return doctorRef != null ? doctorRef : EntityId.decode(doctorKey); }
+    public long getPatientKey() { return patientKey; }
+    public long getDoctorKey() { return doctorKey; }
     public LocalDateTime getAppointmentTime() { return appointmentTime; }
     public AppointmentStatus getStatus() { return status; }
     public Map<String, String> getNotes() { return new HashMap<>(notes); } // Defensive copy
@@ -41,6 +53,23 @@ public class Appointment extends MedicalEntity implements Cloneable {
         markAsUpdated();
     }
     
+    /**
+     * Retry references kept as text, e.g. once the entities they name have been loaded
+     * @return true if a reference now has a key
+     */
+    public boolean resolveReferences() {
+        boolean resolved = false;
+        if (patientRef != null && (patientKey = EntityId.lookup(patientRef)) != EntityId.NONE) {
+            patientRef = null;
+            resolved = true;
+        }
+        if (doctorRef != null && (doctorKey = EntityId.lookup(doctorRef)) != EntityId.NONE) {
+            doctorRef = null;
+            resolved = true;
+        }
+        return resolved;
+    }
+
     public void addNote(String key, String value) {
         this.notes.put(key, value);
         markAsUpdated();
@@ -54,8 +83,8 @@ public class Appointment extends MedicalEntity implements Cloneable {
     @Override
     public boolean isValid() {
         return id != null && !id.isEmpty() &&
-               patientId != null && !patientId.isEmpty() &&
-               doctorId != null && !doctorId.isEmpty() &&
+               patientKey != EntityId.NONE &&
+               doctorKey != EntityId.NONE &&
                appointmentTime != null;
     }
 
@@ -76,23 +105,28 @@ public class Appointment extends MedicalEntity implements Cloneable {
     @Override
     public String toString() {
         return String.format("Appointment[ID=%s, Patient=%s, Doctor=%s, Time=%s, Status=%s]",
-                           id, patientId, doctorId, appointmentTime, status);
+                           id, getPatientId(), getDoctorId(), appointmentTime, status);
     }
 
     // CSV representation
     public String toCSV() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
-        return String.join(",", id, patientId, doctorId, 
-                          appointmentTime.format(formatter), status.name());
+        return CSVUtil.formatRecord(toCSVRecord());
+    }
+
+    public String[] toCSVRecord() {
+        return new String[] { id, getPatientId(), getDoctorId(),
+                              appointmentTime.format(CSV_FORMATTER), status.name() };
     }
 
     public static Appointment fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCSV(CSVUtil.parseLine(csvLine));
+    }
+
+    public static Appointment fromCSV(String[] parts) {
         if (parts.length >= 5) {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
             return new Appointment(
                 parts[0], parts[1], parts[2],
-                LocalDateTime.parse(parts[3], formatter),
+                LocalDateTime.parse(parts[3], CSV_FORMATTER),
                 AppointmentStatus.valueOf(parts[4])
             );
         }
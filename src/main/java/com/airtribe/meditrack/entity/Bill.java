@@ -2,38 +2,68 @@ package com.airtribe.meditrack.entity;
 
 import com.airtribe.meditrack.interfaces.Payable;
 import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.Money;
 
 public class Bill extends MedicalEntity implements Payable {
-    private String appointmentId;
+    private long appointmentKey; // Compact form of the appointment ID
+    private String appointmentRef; // The ID as text if it has no key (unknown, non-canonical); never registered
     private BillType billType;
-    private double consultationFee;
-    private double additionalCharges;
+    // Money is held in exact paise (1/100 rupee); the double getters convert at the edge
+    private long consultationFeePaise;
+    private long additionalChargesPaise;
+    private volatile Totals totals;
     private boolean isPaid;
 
+    // Subtotal, tax and total in paise, recomputed only when an amount changes
+    private record Totals(long subtotal, long tax, long total) {
+    }
+
     public Bill(String billId, String appointmentId, BillType billType,
                 double consultationFee, double additionalCharges) {
         super(billId);
-        this.appointmentId = appointmentId;
+        this.appointmentKey = EntityId.lookup(appointmentId);
+        this.appointmentRef = appointmentKey == EntityId.NONE ? appointmentId : null;
         this.billType = billType;
-        this.consultationFee = consultationFee;
-        this.additionalCharges = additionalCharges;
+        this.consultationFeePaise = Money.toPaise(consultationFee);
+        this.additionalChargesPaise = Money.toPaise(additionalCharges);
+        this.totals = computeTotals();
         this.isPaid = false;
     }
 
     // Getters
     public String getBillId() { return id; }
-    public String getAppointmentId() { return appointmentId; }
+    public String getAppointmentId() { return appointmentRef != null ? appointmentRef : EntityId.decode(appointmentKey); }
+    public long getAppointmentKey() { return appointmentKey; }
     public BillType getBillType() { return billType; }
-    public double getConsultationFee() { return consultationFee; }
-    public double getAdditionalCharges() { return additionalCharges; }
+    public double getConsultationFee() { return Money.toRupees(consultationFeePaise); }
+    public double getAdditionalCharges() { return Money.toRupees(additionalChargesPaise); }
+    public long getSubtotalPaise() { return totals.subtotal(); }
+    public long getTaxPaise() { return totals.tax(); }
+    public long getTotalPaise() { return totals.total(); }
+    public Money getTotal() { return Money.ofPaise(totals.total()); }
     public boolean isPaid() { return isPaid; }
 
     // Setters
     public void setAdditionalCharges(double additionalCharges) { 
-        this.additionalCharges = additionalCharges;
+        this.additionalChargesPaise = Money.toPaise(additionalCharges);
+        this.totals = computeTotals();
         markAsUpdated();
     }
     
+    /**
+     * Retry an appointment reference kept as text, e.g. once the appointment has been loaded
+     * @return true if the reference now has a key
+     */
+    public boolean resolveReferences() {
+        if (appointmentRef != null && (appointmentKey = EntityId.lookup(appointmentRef)) != EntityId.NONE) {
+            appointmentRef = null;
+            return true;
+        }
+        return false;
+    }
+
     public void setPaid(boolean paid) { 
         isPaid = paid;
         markAsUpdated();
@@ -47,23 +77,23 @@ public class Bill extends MedicalEntity implements Payable {
     @Override
     public boolean isValid() {
         return id != null && !id.isEmpty() &&
-               appointmentId != null && !appointmentId.isEmpty() &&
-               consultationFee >= 0;
+               appointmentKey != EntityId.NONE &&
+               consultationFeePaise >= 0;
     }
 
     // Calculate subtotal (before tax)
     public double calculateSubtotal() {
-        return consultationFee + additionalCharges + Constants.SERVICE_CHARGE;
+        return Money.toRupees(totals.subtotal());
     }
 
-    // Calculate tax amount
+    // Calculate tax amount, rounded to the paisa with Money.GST_ROUNDING
     public double calculateTax() {
-        return calculateSubtotal() * Constants.TAX_RATE;
+        return Money.toRupees(totals.tax());
     }
 
     @Override
     public double calculateTotal() {
-        return calculateSubtotal() + calculateTax();
+        return Money.toRupees(totals.total());
     }
 
     // Method overloading: calculate total with custom tax rate
@@ -90,11 +120,11 @@ public class Bill extends MedicalEntity implements Payable {
         bill.append("           MEDITRACK BILL              \n");
         bill.append("========================================\n");
         bill.append(String.format("Bill ID: %s\n", id));
-        bill.append(String.format("Appointment ID: %s\n", appointmentId));
+        bill.append(String.format("Appointment ID: %s\n", getAppointmentId()));
         bill.append(String.format("Bill Type: %s\n", billType));
         bill.append("----------------------------------------\n");
-        bill.append(String.format("Consultation Fee: ₹%.2f\n", consultationFee));
-        bill.append(String.format("Additional Charges: ₹%.2f\n", additionalCharges));
+        bill.append(String.format("Consultation Fee: ₹%.2f\n", getConsultationFee()));
+        bill.append(String.format("Additional Charges: ₹%.2f\n", getAdditionalCharges()));
         bill.append(String.format("Service Charge: ₹%.2f\n", Constants.SERVICE_CHARGE));
         bill.append("----------------------------------------\n");
         bill.append(String.format("Subtotal: ₹%.2f\n", calculateSubtotal()));
@@ -110,18 +140,31 @@ public class Bill extends MedicalEntity implements Payable {
     @Override
     public String toString() {
         return String.format("Bill[ID=%s, Type=%s, Appointment=%s, Total=₹%.2f, Paid=%s]",
-                           id, billType, appointmentId, calculateTotal(), isPaid);
+                           id, billType, getAppointmentId(), calculateTotal(), isPaid);
     }
 
     // CSV representation
     public String toCSV() {
-        return String.join(",", id, appointmentId, billType.name(),
-                          String.valueOf(consultationFee), String.valueOf(additionalCharges),
-                          String.valueOf(isPaid));
+        return CSVUtil.formatRecord(toCSVRecord());
+    }
+
+    public String[] toCSVRecord() {
+        return new String[] { id, getAppointmentId(), billType.name(),
+                              String.valueOf(getConsultationFee()), String.valueOf(getAdditionalCharges()),
+                              String.valueOf(isPaid) };
+    }
+
+    private Totals computeTotals() {
+        long subtotal = consultationFeePaise + additionalChargesPaise + Constants.SERVICE_CHARGE_PAISE;
+        long tax = Money.applyRate(subtotal, Constants.TAX_RATE_BASIS_POINTS, Money.GST_ROUNDING);
+        return new Totals(subtotal, tax, subtotal + tax);
     }
 
     public static Bill fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCSV(CSVUtil.parseLine(csvLine));
+    }
+
+    public static Bill fromCSV(String[] parts) {
         if (parts.length >= 6) {
             Bill bill = new Bill(
                 parts[0], parts[1], BillType.valueOf(parts[2]),
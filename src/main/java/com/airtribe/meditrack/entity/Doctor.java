@@ -1,6 +1,7 @@
 package com.airtribe.meditrack.entity;
 
 import com.airtribe.meditrack.interfaces.Searchable;
+import com.airtribe.meditrack.util.CSVUtil;
 
 public class Doctor extends Person implements Searchable {
     private Specialization specialization;
@@ -55,12 +56,19 @@ public class Doctor extends Person implements Searchable {
 
     // CSV representation
     public String toCSV() {
-        return String.join(",", id, name, String.valueOf(age), contact, 
-                          specialization.name(), String.valueOf(consultationFee));
+        return CSVUtil.formatRecord(toCSVRecord());
+    }
+
+    public String[] toCSVRecord() {
+        return new String[] { id, name, String.valueOf(age), contact,
+                              specialization.name(), String.valueOf(consultationFee) };
     }
 
     public static Doctor fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCSV(CSVUtil.parseLine(csvLine));
+    }
+
+    public static Doctor fromCSV(String[] parts) {
         if (parts.length >= 6) {
             return new Doctor(
                 parts[0], parts[1], Integer.parseInt(parts[2]), parts[3],
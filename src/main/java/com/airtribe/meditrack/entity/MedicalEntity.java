@@ -1,14 +1,17 @@
 package com.airtribe.meditrack.entity;
 
+import com.airtribe.meditrack.util.EntityId;
 import java.time.LocalDateTime;
 
 public abstract class MedicalEntity {
     protected String id;
+    protected long key; // Compact form of id, see EntityId
     protected LocalDateTime createdAt;
     protected LocalDateTime updatedAt;
 
     public MedicalEntity(String id) {
         this.id = id;
+        this.key = EntityId.encode(id);
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
@@ -17,6 +20,13 @@ public abstract class MedicalEntity {
         return id;
     }
 
+    /**
+     * The ID packed into a long; what stores and indexes key entities by
+     */
+    public long getKey() {
+        return key;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -25,6 +35,15 @@ public abstract class MedicalEntity {
         return updatedAt;
     }
 
+    /**
+     * Put back the creation and last-update times of a persisted entity
+     * For decoders only: everything else goes through markAsUpdated.
+     */
+    public void restoreTimestamps(LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     protected void markAsUpdated() {
         this.updatedAt = LocalDateTime.now();
     }
@@ -38,11 +57,11 @@ public abstract class MedicalEntity {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         MedicalEntity that = (MedicalEntity) obj;
-        return id != null && id.equals(that.id);
+        return key != EntityId.NONE && key == that.key;
     }
 
     @Override
     public int hashCode() {
-        return id != null ? id.hashCode() : 0;
+        return Long.hashCode(key);
     }
 }
@@ -1,6 +1,7 @@
 package com.airtribe.meditrack.entity;
 
 import com.airtribe.meditrack.interfaces.Searchable;
+import com.airtribe.meditrack.util.CSVUtil;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -74,13 +75,20 @@ public class Patient extends Person implements Searchable, Cloneable {
 
     // CSV representation
     public String toCSV() {
+        return CSVUtil.formatRecord(toCSVRecord());
+    }
+
+    public String[] toCSVRecord() {
         String allergiesStr = String.join(";", allergies);
-        return String.join(",", id, name, String.valueOf(age), contact, 
-                          medicalHistory, allergiesStr);
+        return new String[] { id, name, String.valueOf(age), contact,
+                              medicalHistory, allergiesStr };
     }
 
     public static Patient fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCSV(CSVUtil.parseLine(csvLine));
+    }
+
+    public static Patient fromCSV(String[] parts) {
         if (parts.length >= 5) {
             Patient patient = new Patient(
                 parts[0], parts[1], Integer.parseInt(parts[2]), parts[3], parts[4]
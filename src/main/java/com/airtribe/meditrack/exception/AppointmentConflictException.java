@@ -0,0 +1,12 @@
+package com.airtribe.meditrack.exception;
+
+public class AppointmentConflictException extends Exception {
+    
+    public AppointmentConflictException(String message) {
+        super(message);
+    }
+
+    public AppointmentConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
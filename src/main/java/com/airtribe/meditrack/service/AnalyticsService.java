@@ -0,0 +1,94 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.Money;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Group-by and filter aggregates over the columnar projections the appointment
+ * and bill services keep in step with their stores
+ * Each query scans primitive arrays under the owning service's columns read lock,
+ * which other queries share and which keeps the service lock free for writers,
+ * then turns the dense result back into IDs and enums; no Appointment or Bill is touched.
+ */
+public class AnalyticsService {
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final BillType[] BILL_TYPES = BillType.values();
+
+    private final AppointmentService appointmentService;
+    private final BillService billService;
+
+    public AnalyticsService(AppointmentService appointmentService, BillService billService) {
+        this.appointmentService = appointmentService;
+        this.billService = billService;
+    }
+
+    /**
+     * Same result as AppointmentService.getAppointmentsPerDoctor, from the doctor column
+     * Appointments whose doctor reference never resolved are left out.
+     */
+    public Map<String, Long> getAppointmentsPerDoctor() {
+        return appointmentService.queryColumns(columns -> byDoctorId(columns.countByDoctor(), columns::doctorKey));
+    }
+
+    /**
+     * Appointments per doctor in one status; doctors with none are left out
+     */
+    public Map<String, Long> getAppointmentsPerDoctor(AppointmentStatus status) {
+        return appointmentService.queryColumns(
+                columns -> byDoctorId(columns.countByDoctor(status), columns::doctorKey));
+    }
+
+    /**
+     * Appointments per status with a time in [from, to)
+     */
+    public Map<AppointmentStatus, Integer> getStatusCounts(LocalDateTime from, LocalDateTime to) {
+        int[] counts = appointmentService.queryColumns(columns -> columns.countByStatus(from, to));
+        Map<AppointmentStatus, Integer> result = new EnumMap<>(AppointmentStatus.class);
+        for (AppointmentStatus status : STATUSES) {
+            result.put(status, counts[status.ordinal()]);
+        }
+        return result;
+    }
+
+    public Money getTotalRevenue() {
+        return Money.ofPaise(billService.queryColumns(columns -> columns.sum(true)));
+    }
+
+    public Money getTotalPending() {
+        return Money.ofPaise(billService.queryColumns(columns -> columns.sum(false)));
+    }
+
+    public Map<BillType, Money> getRevenueByType() {
+        return byBillType(billService.queryColumns(columns -> columns.sumByType(true)));
+    }
+
+    public Map<BillType, Money> getPendingByType() {
+        return byBillType(billService.queryColumns(columns -> columns.sumByType(false)));
+    }
+
+    private static Map<String, Long> byDoctorId(int[] counts, IntToLongFunction doctorKeys) {
+        Map<String, Long> result = new HashMap<>(counts.length * 2);
+        for (int i = 0; i < counts.length; i++) {
+            long doctorKey = doctorKeys.applyAsLong(i);
+            if (counts[i] > 0 && doctorKey != EntityId.NONE) {
+                result.put(EntityId.decode(doctorKey), (long) counts[i]);
+            }
+        }
+        return result;
+    }
+
+    private static Map<BillType, Money> byBillType(long[] sums) {
+        Map<BillType, Money> result = new EnumMap<>(BillType.class);
+        for (BillType type : BILL_TYPES) {
+            result.put(type, Money.ofPaise(sums[type.ordinal()]));
+        }
+        return result;
+    }
+}
@@ -1,22 +1,113 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.Appointment;
 import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.util.AppointmentColumns;
+import com.airtribe.meditrack.util.ConcurrentDataStore;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.Page;
+import com.airtribe.meditrack.util.SecondaryIndex;
+import com.airtribe.meditrack.util.WriteAheadLog;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
 import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class AppointmentService {
+    private static final Duration SLOT = Duration.ofMinutes(Constants.APPOINTMENT_SLOT_MINUTES);
+
     private DataStore<Appointment> appointmentStore;
+    private volatile WriteAheadLog writeAheadLog;
+
+    // Secondary indexes by compact doctor/patient key, kept in step with the store by index()/unindex()
+    private final SecondaryIndex<Long, Appointment> doctorIndex = new SecondaryIndex<>();
+    private final SecondaryIndex<Long, Appointment> patientIndex = new SecondaryIndex<>();
+
+    // Per-doctor time-ordered schedule of non-cancelled appointments
+    private final Map<Long, ConcurrentSkipListMap<SlotKey, Appointment>> schedules = new ConcurrentHashMap<>();
+
+    // Time-ordered members of each status, with counts kept next to them (skip list size() is O(n))
+    private final Map<AppointmentStatus, ConcurrentSkipListMap<SlotKey, Appointment>> byStatus =
+            new EnumMap<>(AppointmentStatus.class);
+    private final int[] statusCounts = new int[AppointmentStatus.values().length];
+
+    // Primitive columns for analytics; each appointment keeps its row for life
+    private final AppointmentColumns columns = new AppointmentColumns();
+
+    // Guards the columns apart from the service lock: writers hold it only for the row
+    // update, and analytics scans share it without blocking the rest of the service
+    private final ReadWriteLock columnsLock = new ReentrantReadWriteLock();
+
+    // Index keys as last indexed, so entries can be removed after in-place mutation
+    private final Map<Long, IndexedAppointment> indexed = new ConcurrentHashMap<>();
+
+    private record IndexedAppointment(long doctorKey, long patientKey, LocalDateTime time, SlotKey slot,
+                                      AppointmentStatus status, SlotKey statusSlot, int row) {
+    }
+
+    // Appointment key breaks ties so two bookings at the same instant never overwrite each other
+    private record SlotKey(LocalDateTime time, long appointmentKey) implements Comparable<SlotKey> {
+        @Override
+        public int compareTo(SlotKey other) {
+            int byTime = time.compareTo(other.time);
+            return byTime != 0 ? byTime : Long.compare(appointmentKey, other.appointmentKey);
+        }
+
+        // Sorts before every real key at the same instant
+        static SlotKey lowest(LocalDateTime time) {
+            return new SlotKey(time, Long.MIN_VALUE);
+        }
+    }
 
     public AppointmentService() {
-        this.appointmentStore = new DataStore<>();
+        this.appointmentStore = new ConcurrentDataStore<>();
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            byStatus.put(status, new ConcurrentSkipListMap<>());
+        }
     }
 
-    public void scheduleAppointment(Appointment appointment) {
-        appointmentStore.add(appointment);
+    /**
+     * Schedule an appointment, rejecting it if the doctor already has a
+     * non-cancelled appointment within one slot of the requested time
+     */
+    public void scheduleAppointment(Appointment appointment) throws AppointmentConflictException {
+        long sequence;
+        synchronized (this) {
+            checkConflict(appointment);
+            appointmentStore.add(appointment);
+            reindex(appointment);
+            sequence = log(WriteAheadLog.Operation.SCHEDULE_APPOINTMENT, appointment);
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Put back an appointment from persisted state without the double-booking check
+     */
+    void restoreAppointment(Appointment appointment) {
+        long sequence;
+        synchronized (this) {
+            appointmentStore.add(appointment);
+            reindex(appointment);
+            sequence = log(WriteAheadLog.Operation.SCHEDULE_APPOINTMENT, appointment);
+        }
+        awaitDurable(sequence);
     }
 
     public Appointment getAppointmentById(String id) throws AppointmentNotFoundException {
@@ -27,55 +118,402 @@ public class AppointmentService {
         return appointment;
     }
 
+    public boolean appointmentExists(String id) {
+        return appointmentStore.exists(id);
+    }
+
     public List<Appointment> getAllAppointments() {
         return appointmentStore.getAll();
     }
 
+    /**
+     * One page of appointments in ID order
+     * @param cursor the previous page's next cursor, or null for the first page
+     */
+    public Page<Appointment> getAppointmentsPage(String cursor, int limit) {
+        return appointmentStore.page(cursor, limit);
+    }
+
+    /**
+     * Lazy stream over all appointments, without copying them into a list
+     */
+    public Stream<Appointment> streamAppointments() {
+        return appointmentStore.stream();
+    }
+
     public List<Appointment> getAppointmentsByPatient(String patientId) {
-        return appointmentStore.getAll().stream()
-                .filter(apt -> apt.getPatientId().equals(patientId))
-                .collect(Collectors.toList());
+        return patientIndex.get(EntityId.lookup(patientId));
     }
 
     public List<Appointment> getAppointmentsByDoctor(String doctorId) {
-        return appointmentStore.getAll().stream()
-                .filter(apt -> apt.getDoctorId().equals(doctorId))
-                .collect(Collectors.toList());
+        return doctorIndex.get(EntityId.lookup(doctorId));
+    }
+
+    /**
+     * Non-cancelled appointments of a doctor in [from, to), ordered by time
+     */
+    public List<Appointment> getAppointmentsByDoctor(String doctorId, LocalDateTime from, LocalDateTime to) {
+        ConcurrentSkipListMap<SlotKey, Appointment> schedule = schedules.get(EntityId.lookup(doctorId));
+        if (schedule == null || !from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(schedule.subMap(SlotKey.lowest(from), true, SlotKey.lowest(to), false).values());
     }
 
+    public boolean isSlotAvailable(String doctorId, LocalDateTime time) {
+        return findConflict(EntityId.lookup(doctorId), time, EntityId.NONE) == null;
+    }
+
+    /**
+     * Earliest start time at or after {@code from} where the doctor has a free slot
+     */
+    public LocalDateTime findNextAvailableSlot(String doctorId, LocalDateTime from) {
+        long doctorKey = EntityId.lookup(doctorId);
+        LocalDateTime candidate = from;
+        Appointment conflict;
+        while ((conflict = findConflict(doctorKey, candidate, EntityId.NONE)) != null) {
+            candidate = conflict.getAppointmentTime().plus(SLOT);
+        }
+        return candidate;
+    }
+
+
+    /**
+     * Appointments currently in the given status, ordered by time
+     */
+    public List<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
+        return new ArrayList<>(byStatus.get(status).values());
+    }
+
+    /**
+     * Appointments in the given status with a time in [from, to), ordered by time
+     * e.g. everything still SCHEDULED today, without scanning the store
+     */
+    public List<Appointment> getAppointmentsByStatus(AppointmentStatus status, LocalDateTime from,
+                                                     LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(byStatus.get(status)
+                .subMap(SlotKey.lowest(from), true, SlotKey.lowest(to), false).values());
+    }
+
+    public synchronized int countByStatus(AppointmentStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Count of every status, taken at one instant so the counts add up to the total
+     */
+    public synchronized Map<AppointmentStatus, Integer> getStatusCounts() {
+        Map<AppointmentStatus, Integer> counts = new EnumMap<>(AppointmentStatus.class);
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            counts.put(status, statusCounts[status.ordinal()]);
+        }
+        return counts;
+    }
 
 //    Stream Analytics : Count appointments per doctor
+    // Appointments whose doctor reference never resolved are left out
     public Map<String, Long> getAppointmentsPerDoctor() {
-        return appointmentStore.getAll().stream()
+        Map<Long, Long> byKey = appointmentStore.stream()
+                .filter(appointment -> appointment.getDoctorKey() != EntityId.NONE)
                 .collect(Collectors.groupingBy(
-                    Appointment::getDoctorId,
+                    Appointment::getDoctorKey,
                     Collectors.counting()
                 ));
+        // Format each doctor ID once rather than once per appointment
+        Map<String, Long> counts = new HashMap<>(byKey.size() * 2);
+        byKey.forEach((doctorKey, count) -> counts.put(EntityId.decode(doctorKey), count));
+        return counts;
     }
 
-    public void updateAppointment(Appointment appointment) {
-        appointmentStore.update(appointment);
+    /**
+     * Run a query against the analytics columns while no write can change them
+     * Queries run concurrently with each other and with the rest of the service;
+     * only the column update at the end of a write waits for them.
+     */
+    <R> R queryColumns(Function<AppointmentColumns, R> query) {
+        columnsLock.readLock().lock();
+        try {
+            return query.apply(columns);
+        } finally {
+            columnsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Save changes to an appointment, applying the same double-booking check as scheduling
+     * If the check fails and the caller edited the stored instance in place, its time
+     * and status are put back to what is indexed, so store and indexes still agree.
+     */
+    public void updateAppointment(Appointment appointment) throws AppointmentConflictException {
+        long sequence = 0;
+        synchronized (this) {
+            if (appointmentStore.exists(appointment.getId())) {
+                try {
+                    checkConflict(appointment);
+                } catch (AppointmentConflictException e) {
+                    if (appointmentStore.getById(appointment.getId()) == appointment) {
+                        revert(appointment);
+                    }
+                    throw e;
+                }
+                sequence = replace(appointment);
+            }
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Put back an updated appointment from persisted state without the double-booking check
+     */
+    void restoreUpdate(Appointment appointment) {
+        long sequence = 0;
+        synchronized (this) {
+            if (appointmentStore.exists(appointment.getId())) {
+                sequence = replace(appointment);
+            }
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Resolve references still held as text and move those appointments to their
+     * resolved index entries; used by the CSV link phase once every file is in
+     * @return the number of appointments relinked
+     */
+    int resolveReferences() {
+        int relinked = 0;
+        long sequence = 0;
+        synchronized (this) {
+            for (Appointment appointment : appointmentStore) {
+                if (appointment.resolveReferences()) {
+                    // Logged as an update, so replay sees the keys resolved after their entities
+                    sequence = replace(appointment);
+                    relinked++;
+                }
+            }
+        }
+        awaitDurable(sequence);
+        return relinked;
     }
 
     public void cancelAppointment(String id) throws AppointmentNotFoundException {
-        Appointment appointment = getAppointmentById(id);
-        appointment.setStatus(AppointmentStatus.CANCELLED);
-        appointmentStore.update(appointment);
+        // Giving up a slot never conflicts with anything
+        changeStatusUnchecked(id, AppointmentStatus.CANCELLED);
     }
 
-    public void completeAppointment(String id) throws AppointmentNotFoundException {
-        Appointment appointment = getAppointmentById(id);
-        appointment.setStatus(AppointmentStatus.COMPLETED);
-        appointmentStore.update(appointment);
+    /**
+     * Mark an appointment completed; a cancelled one must get its slot back first
+     */
+    public void completeAppointment(String id) throws AppointmentNotFoundException, AppointmentConflictException {
+        changeStatus(id, AppointmentStatus.COMPLETED, true);
     }
 
-    public void confirmAppointment(String id) throws AppointmentNotFoundException {
-        Appointment appointment = getAppointmentById(id);
-        appointment.setStatus(AppointmentStatus.CONFIRMED);
-        appointmentStore.update(appointment);
+    /**
+     * Confirm an appointment; a cancelled one must get its slot back first
+     */
+    public void confirmAppointment(String id) throws AppointmentNotFoundException, AppointmentConflictException {
+        changeStatus(id, AppointmentStatus.CONFIRMED, true);
+    }
+
+    /**
+     * Put back a status change from persisted state without the double-booking check
+     */
+    void restoreStatus(String id, AppointmentStatus status) throws AppointmentNotFoundException {
+        changeStatusUnchecked(id, status);
     }
 
     public int getAppointmentCount() {
         return appointmentStore.size();
     }
+
+    /**
+     * Record every mutation in the given log (null disables logging)
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    private void changeStatus(String id, AppointmentStatus status, boolean checked)
+            throws AppointmentNotFoundException, AppointmentConflictException {
+        long sequence;
+        synchronized (this) {
+            Appointment appointment = getAppointmentById(id);
+            // Leaving CANCELLED puts the appointment back in the doctor's schedule,
+            // so the slot may have been booked by someone else in the meantime
+            if (checked && appointment.getStatus() == AppointmentStatus.CANCELLED) {
+                checkConflict(appointment, status);
+            }
+            appointment.setStatus(status);
+            appointmentStore.update(appointment);
+            reindex(appointment);
+            sequence = log(statusOperation(status), id);
+        }
+        awaitDurable(sequence);
+    }
+
+    private void changeStatusUnchecked(String id, AppointmentStatus status) throws AppointmentNotFoundException {
+        try {
+            changeStatus(id, status, false);
+        } catch (AppointmentConflictException e) {
+            throw new IllegalStateException("Unchecked status change cannot conflict", e);
+        }
+    }
+
+    private long log(WriteAheadLog.Operation operation, Appointment entity) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, entity);
+    }
+
+    private long log(WriteAheadLog.Operation operation, String id) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, id);
+    }
+
+    private void awaitDurable(long sequence) {
+        WriteAheadLog wal = writeAheadLog;
+        if (wal != null && sequence > 0) {
+            wal.awaitDurable(sequence);
+        }
+    }
+
+    // Callers hold the service lock
+    private long replace(Appointment appointment) {
+        appointmentStore.update(appointment);
+        reindex(appointment);
+        return log(WriteAheadLog.Operation.UPDATE_APPOINTMENT, appointment);
+    }
+
+    private static WriteAheadLog.Operation statusOperation(AppointmentStatus status) {
+        return switch (status) {
+            case CANCELLED -> WriteAheadLog.Operation.CANCEL_APPOINTMENT;
+            case COMPLETED -> WriteAheadLog.Operation.COMPLETE_APPOINTMENT;
+            case CONFIRMED -> WriteAheadLog.Operation.CONFIRM_APPOINTMENT;
+            default -> throw new IllegalArgumentException("No log operation for status " + status);
+        };
+    }
+
+    // Callers hold the service lock: undo in-place edits the indexes have not seen
+    private void revert(Appointment appointment) {
+        IndexedAppointment current = indexed.get(appointment.getKey());
+        if (current != null) {
+            appointment.setAppointmentTime(current.time());
+            appointment.setStatus(current.status());
+        }
+    }
+
+    // Callers hold the service lock; the appointment's own (possibly stale) slot is ignored
+    private void checkConflict(Appointment appointment) throws AppointmentConflictException {
+        checkConflict(appointment, appointment.getStatus());
+    }
+
+    // As above, for the appointment as it would be in the given status
+    private void checkConflict(Appointment appointment, AppointmentStatus status)
+            throws AppointmentConflictException {
+        if (status == AppointmentStatus.CANCELLED) {
+            return;
+        }
+        Appointment conflict = findConflict(appointment.getDoctorKey(),
+                appointment.getAppointmentTime(), appointment.getKey());
+        if (conflict != null) {
+            throw new AppointmentConflictException("Doctor " + appointment.getDoctorId()
+                    + " is already booked at " + conflict.getAppointmentTime()
+                    + " (" + conflict.getId() + ")");
+        }
+    }
+
+    // First booked appointment overlapping a slot starting at time, O(log n)
+    private Appointment findConflict(long doctorKey, LocalDateTime time, long ignoreKey) {
+        ConcurrentSkipListMap<SlotKey, Appointment> schedule = schedules.get(doctorKey);
+        if (schedule == null || time == null) {
+            return null;
+        }
+        LocalDateTime earliest = time.minus(SLOT);
+        LocalDateTime latest = time.plus(SLOT);
+        NavigableMap<SlotKey, Appointment> window =
+                schedule.subMap(SlotKey.lowest(earliest), false, SlotKey.lowest(latest), false);
+        for (Map.Entry<SlotKey, Appointment> entry : window.entrySet()) {
+            SlotKey key = entry.getKey();
+            if (key.time().isAfter(earliest) && key.appointmentKey() != ignoreKey) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    // Callers hold the service lock, so the store and all indexes change together
+    private void reindex(Appointment appointment) {
+        IndexedAppointment previous = unindex(appointment.getKey());
+        index(appointment, previous != null ? previous.row() : addColumnRow());
+    }
+
+    private int addColumnRow() {
+        columnsLock.writeLock().lock();
+        try {
+            return columns.addRow();
+        } finally {
+            columnsLock.writeLock().unlock();
+        }
+    }
+
+    private void index(Appointment appointment, int row) {
+        // Unresolved references all share the NONE key, so they are left out of the
+        // per-doctor and per-patient indexes rather than pooled into one bucket
+        boolean knownDoctor = appointment.getDoctorKey() != EntityId.NONE;
+        if (knownDoctor) {
+            doctorIndex.add(appointment.getDoctorKey(), appointment);
+        }
+        if (appointment.getPatientKey() != EntityId.NONE) {
+            patientIndex.add(appointment.getPatientKey(), appointment);
+        }
+
+        SlotKey slot = null;
+        if (knownDoctor && appointment.getStatus() != AppointmentStatus.CANCELLED
+                && appointment.getAppointmentTime() != null) {
+            slot = new SlotKey(appointment.getAppointmentTime(), appointment.getKey());
+            schedules.computeIfAbsent(appointment.getDoctorKey(), k -> new ConcurrentSkipListMap<>())
+                    .put(slot, appointment);
+        }
+
+        AppointmentStatus status = appointment.getStatus();
+        SlotKey statusSlot = null;
+        if (status != null) {
+            // Appointments without a time sort first
+            LocalDateTime time = appointment.getAppointmentTime();
+            statusSlot = new SlotKey(time != null ? time : LocalDateTime.MIN, appointment.getKey());
+            byStatus.get(status).put(statusSlot, appointment);
+            statusCounts[status.ordinal()]++;
+        }
+
+        columnsLock.writeLock().lock();
+        try {
+            columns.set(row, appointment.getDoctorKey(), appointment.getAppointmentTime(), status);
+        } finally {
+            columnsLock.writeLock().unlock();
+        }
+
+        indexed.put(appointment.getKey(), new IndexedAppointment(appointment.getDoctorKey(),
+                appointment.getPatientKey(), appointment.getAppointmentTime(), slot, status, statusSlot, row));
+    }
+
+    private IndexedAppointment unindex(long key) {
+        IndexedAppointment previous = indexed.remove(key);
+        if (previous != null) {
+            doctorIndex.remove(previous.doctorKey(), key);
+            patientIndex.remove(previous.patientKey(), key);
+            if (previous.slot() != null) {
+                ConcurrentSkipListMap<SlotKey, Appointment> schedule = schedules.get(previous.doctorKey());
+                if (schedule != null) {
+                    schedule.remove(previous.slot());
+                }
+            }
+            if (previous.status() != null) {
+                byStatus.get(previous.status()).remove(previous.statusSlot());
+                statusCounts[previous.status().ordinal()]--;
+            }
+        }
+        return previous;
+    }
 }
@@ -2,19 +2,79 @@ package com.airtribe.meditrack.service;
 
 import com.airtribe.meditrack.entity.Bill;
 import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.util.BillColumns;
+import com.airtribe.meditrack.util.ConcurrentDataStore;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.Money;
+import com.airtribe.meditrack.util.Page;
+import com.airtribe.meditrack.util.SecondaryIndex;
+import com.airtribe.meditrack.util.WriteAheadLog;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class BillService {
     private DataStore<Bill> billStore;
+    private volatile WriteAheadLog writeAheadLog;
+
+    // Running paid/unpaid totals per bill type in exact paise, so reports never scan the store
+    private final Map<BillType, RevenueTotals> totalsByType = new EnumMap<>(BillType.class);
+
+    // Bills by payment state and by appointment, so listings never scan the store
+    private final SecondaryIndex<Boolean, Bill> paymentIndex = new SecondaryIndex<>();
+    private final SecondaryIndex<Long, Bill> appointmentIndex = new SecondaryIndex<>();
+
+    // Primitive columns for analytics; each bill keeps its row for life
+    private final BillColumns columns = new BillColumns();
+
+    // Guards the columns apart from the service lock, so analytics scans never hold up
+    // the store and indexes; writers take it only to update a row
+    private final ReadWriteLock columnsLock = new ReentrantReadWriteLock();
+
+    // What each bill contributed to the totals and indexes when it was last accounted
+    private final Map<String, AccountedBill> accounted = new HashMap<>();
+
+    private record AccountedBill(BillType billType, boolean paid, long total, long appointmentKey, int row) {
+    }
+
+    private static final class RevenueTotals {
+        private long paidAmount;
+        private long unpaidAmount;
+        private int paidCount;
+        private int unpaidCount;
+
+        void apply(AccountedBill bill, int sign) {
+            if (bill.paid()) {
+                paidAmount += sign * bill.total();
+                paidCount += sign;
+            } else {
+                unpaidAmount += sign * bill.total();
+                unpaidCount += sign;
+            }
+        }
+    }
 
     public BillService() {
-        this.billStore = new DataStore<>();
+        this.billStore = new ConcurrentDataStore<>();
+        for (BillType type : BillType.values()) {
+            totalsByType.put(type, new RevenueTotals());
+        }
     }
 
     public void addBill(Bill bill) {
-        billStore.add(bill);
+        long sequence;
+        synchronized (this) {
+            billStore.add(bill);
+            account(bill);
+            sequence = log(WriteAheadLog.Operation.ADD_BILL, bill);
+        }
+        awaitDurable(sequence);
     }
 
     public Bill getBillById(String id) {
@@ -25,51 +85,246 @@ public class BillService {
         return billStore.getAll();
     }
 
+    /**
+     * One page of bills in ID order
+     * @param cursor the previous page's next cursor, or null for the first page
+     */
+    public Page<Bill> getBillsPage(String cursor, int limit) {
+        return billStore.page(cursor, limit);
+    }
+
+    /**
+     * Lazy stream over all bills, without copying them into a list
+     */
+    public Stream<Bill> streamBills() {
+        return billStore.stream();
+    }
+
     public List<Bill> getBillsByAppointment(String appointmentId) {
-        return billStore.getAll().stream()
-                .filter(bill -> bill.getAppointmentId().equals(appointmentId))
-                .collect(Collectors.toList());
+        return appointmentIndex.get(EntityId.lookup(appointmentId));
     }
 
     public List<Bill> getUnpaidBills() {
-        return billStore.getAll().stream()
-                .filter(bill -> !bill.isPaid())
-                .collect(Collectors.toList());
+        return paymentIndex.get(false);
     }
 
     public List<Bill> getPaidBills() {
-        return billStore.getAll().stream()
-                .filter(Bill::isPaid)
-                .collect(Collectors.toList());
+        return paymentIndex.get(true);
     }
 
     public double getTotalRevenue() {
-        return billStore.getAll().stream()
-                .filter(Bill::isPaid)
-                .mapToDouble(Bill::calculateTotal)
-                .sum();
+        return getTotalRevenueAmount().toRupees();
     }
 
     public double getTotalPending() {
-        return billStore.getAll().stream()
-                .filter(bill -> !bill.isPaid())
-                .mapToDouble(Bill::calculateTotal)
-                .sum();
+        return getTotalPendingAmount().toRupees();
+    }
+
+    /**
+     * Exact revenue collected so far; prefer this over the double getter for reconciliation
+     */
+    public synchronized Money getTotalRevenueAmount() {
+        long total = 0;
+        for (RevenueTotals totals : totalsByType.values()) {
+            total += totals.paidAmount;
+        }
+        return Money.ofPaise(total);
+    }
+
+    /**
+     * Exact amount still owed on unpaid bills
+     */
+    public synchronized Money getTotalPendingAmount() {
+        long total = 0;
+        for (RevenueTotals totals : totalsByType.values()) {
+            total += totals.unpaidAmount;
+        }
+        return Money.ofPaise(total);
+    }
+
+    public synchronized int getPaidBillCount() {
+        int count = 0;
+        for (RevenueTotals totals : totalsByType.values()) {
+            count += totals.paidCount;
+        }
+        return count;
+    }
+
+    public synchronized int getUnpaidBillCount() {
+        int count = 0;
+        for (RevenueTotals totals : totalsByType.values()) {
+            count += totals.unpaidCount;
+        }
+        return count;
+    }
+
+    public synchronized double getRevenueByType(BillType billType) {
+        return Money.toRupees(totalsByType.get(billType).paidAmount);
+    }
+
+    public synchronized double getPendingByType(BillType billType) {
+        return Money.toRupees(totalsByType.get(billType).unpaidAmount);
     }
 
     public void updateBill(Bill bill) {
-        billStore.update(bill);
+        long sequence = 0;
+        synchronized (this) {
+            if (billStore.exists(bill.getId())) {
+                billStore.update(bill);
+                account(bill);
+                sequence = log(WriteAheadLog.Operation.UPDATE_BILL, bill);
+            }
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Resolve appointment references still held as text; used by the CSV link phase
+     * @return the number of bills relinked
+     */
+    int resolveReferences() {
+        int relinked = 0;
+        long sequence = 0;
+        synchronized (this) {
+            for (Bill bill : billStore) {
+                if (bill.resolveReferences()) {
+                    account(bill);
+                    sequence = log(WriteAheadLog.Operation.UPDATE_BILL, bill);
+                    relinked++;
+                }
+            }
+        }
+        awaitDurable(sequence);
+        return relinked;
     }
 
     public void processBillPayment(String billId) {
-        Bill bill = billStore.getById(billId);
-        if (bill != null) {
-            bill.processPayment();
-            billStore.update(bill);
+        long sequence = 0;
+        synchronized (this) {
+            Bill bill = billStore.getById(billId);
+            if (bill != null) {
+                bill.processPayment();
+                billStore.update(bill);
+                account(bill);
+                sequence = log(WriteAheadLog.Operation.PAY_BILL, billId);
+            }
         }
+        awaitDurable(sequence);
     }
 
     public int getBillCount() {
         return billStore.size();
     }
+
+    /**
+     * Recompute all aggregates from the store and compare with the running totals
+     * @return true if every per-type amount and count matches, and so do the paid/unpaid sets and columns
+     */
+    public synchronized boolean verifyAggregates() {
+        Map<BillType, RevenueTotals> recomputed = new EnumMap<>(BillType.class);
+        for (BillType type : BillType.values()) {
+            recomputed.put(type, new RevenueTotals());
+        }
+        for (Bill bill : billStore) {
+            // The row plays no part in the totals
+            recomputed.get(bill.getBillType()).apply(snapshot(bill, -1), 1);
+        }
+
+        int[] paidColumnCounts = columns.countByType(true);
+        long[] paidColumnSums = columns.sumByType(true);
+        long[] unpaidColumnSums = columns.sumByType(false);
+        for (BillType type : BillType.values()) {
+            RevenueTotals expected = recomputed.get(type);
+            RevenueTotals actual = totalsByType.get(type);
+            if (expected.paidCount != actual.paidCount
+                    || expected.paidCount != paidColumnCounts[type.ordinal()]
+                    || expected.paidAmount != paidColumnSums[type.ordinal()]
+                    || expected.unpaidAmount != unpaidColumnSums[type.ordinal()]
+                    || expected.unpaidCount != actual.unpaidCount
+                    || expected.paidAmount != actual.paidAmount
+                    || expected.unpaidAmount != actual.unpaidAmount) {
+                return false;
+            }
+        }
+        int paid = 0;
+        for (RevenueTotals totals : recomputed.values()) {
+            paid += totals.paidCount;
+        }
+        return paymentIndex.count(true) == paid && paymentIndex.count(false) == billStore.size() - paid;
+    }
+
+    /**
+     * Run a query against the analytics columns while no write can change them
+     * Queries share the columns lock, so they neither wait for each other nor take the service lock.
+     */
+    <R> R queryColumns(Function<BillColumns, R> query) {
+        columnsLock.readLock().lock();
+        try {
+            return query.apply(columns);
+        } finally {
+            columnsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Record every mutation in the given log (null disables logging)
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    // Callers hold the service lock: replace the bill's previous contribution with its current one
+    private void account(Bill bill) {
+        AccountedBill previous = accounted.get(bill.getId());
+        AccountedBill current = snapshot(bill, previous != null ? previous.row() : addColumnRow());
+        accounted.put(bill.getId(), current);
+        if (previous != null) {
+            totalsByType.get(previous.billType()).apply(previous, -1);
+            paymentIndex.remove(previous.paid(), bill.getKey());
+            appointmentIndex.remove(previous.appointmentKey(), bill.getKey());
+        }
+        totalsByType.get(current.billType()).apply(current, 1);
+        paymentIndex.add(current.paid(), bill);
+        // Bills of unresolved appointments would all share the NONE bucket
+        if (current.appointmentKey() != EntityId.NONE) {
+            appointmentIndex.add(current.appointmentKey(), bill);
+        }
+        columnsLock.writeLock().lock();
+        try {
+            columns.set(current.row(), current.total(), current.billType(), current.paid());
+        } finally {
+            columnsLock.writeLock().unlock();
+        }
+    }
+
+    private int addColumnRow() {
+        columnsLock.writeLock().lock();
+        try {
+            return columns.addRow();
+        } finally {
+            columnsLock.writeLock().unlock();
+        }
+    }
+
+    private static AccountedBill snapshot(Bill bill, int row) {
+        return new AccountedBill(bill.getBillType(), bill.isPaid(), bill.getTotalPaise(),
+                bill.getAppointmentKey(), row);
+    }
+
+    private long log(WriteAheadLog.Operation operation, Bill entity) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, entity);
+    }
+
+    private long log(WriteAheadLog.Operation operation, String id) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, id);
+    }
+
+    private void awaitDurable(long sequence) {
+        WriteAheadLog wal = writeAheadLog;
+        if (wal != null && sequence > 0) {
+            wal.awaitDurable(sequence);
+        }
+    }
 }
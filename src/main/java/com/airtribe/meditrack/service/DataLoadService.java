@@ -0,0 +1,255 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.MedicalEntity;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.EntityId;
+import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.IdType;
+import com.airtribe.meditrack.util.ParallelCSVReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Loads all CSV files into the services concurrently
+ * Every file is parsed on its own thread straight into its (thread-safe) service;
+ * cross-entity references are only checked in a link/validate phase once all files are in.
+ * A non-canonical reference parsed before its entity is kept as text until that phase
+ * resolves it; whatever is still dangling then is counted as an orphan.
+ * Large appointment and bill files are additionally split into chunks parsed in parallel.
+ */
+public class DataLoadService {
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final BillService billService;
+
+    public record FileResult(String file, long records, long loaded, long rejected, long millis) {
+    }
+
+    public record LoadReport(List<FileResult> files, long orphanAppointments, long orphanBills,
+                             long validateMillis, long totalMillis) {
+    }
+
+    // Parser + insert step for one record; returns false if the record was rejected
+    @FunctionalInterface
+    private interface RecordLoader {
+        boolean load(String[] record);
+    }
+
+    public DataLoadService(DoctorService doctorService, PatientService patientService,
+                           AppointmentService appointmentService, BillService billService) {
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        this.billService = billService;
+    }
+
+    public LoadReport loadFromCSV() throws IOException {
+        return loadFromCSV(Constants.DOCTORS_FILE, Constants.PATIENTS_FILE,
+                Constants.APPOINTMENTS_FILE, Constants.BILLS_FILE);
+    }
+
+    public LoadReport loadFromCSV(String doctorsFile, String patientsFile,
+                                  String appointmentsFile, String billsFile) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<FileResult>> futures = new ArrayList<>();
+            submit(futures, executor, doctorsFile, false, record -> {
+                Doctor doctor = Doctor.fromCSV(record);
+                if (doctor == null) return false;
+                doctorService.addDoctor(doctor);
+                return true;
+            });
+            submit(futures, executor, patientsFile, false, record -> {
+                Patient patient = Patient.fromCSV(record);
+                if (patient == null) return false;
+                patientService.addPatient(patient);
+                return true;
+            });
+            submit(futures, executor, appointmentsFile, true, record -> {
+                Appointment appointment = Appointment.fromCSV(record);
+                if (appointment == null) return false;
+                // Persisted history is restored as-is, like snapshot and log replay; no double-booking check
+                appointmentService.restoreAppointment(appointment);
+                return true;
+            });
+            submit(futures, executor, billsFile, true, record -> {
+                Bill bill = Bill.fromCSV(record);
+                if (bill == null) return false;
+                billService.addBill(bill);
+                return true;
+            });
+
+            List<FileResult> results = new ArrayList<>();
+            for (CompletableFuture<FileResult> future : futures) {
+                results.add(join(future));
+            }
+
+            long validateStart = System.nanoTime();
+            appointmentService.resolveReferences();
+            billService.resolveReferences();
+            long orphanAppointments = countOrphanAppointments();
+            long orphanBills = countOrphanBills();
+            advanceIdGenerator(doctorService, patientService, appointmentService, billService);
+            long end = System.nanoTime();
+
+            return new LoadReport(results, orphanAppointments, orphanBills,
+                    toMillis(end - validateStart), toMillis(end - start));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Load synthetic data straight into the services, without going through files
+     * The generator numbers its IDs from fixed starting points, so the services must be empty.
+     * @return the number of records generated
+     * @throws IllegalStateException if any service already holds data (e.g. recovered from the log)
+     */
+    public long loadGenerated(DataGenerator generator) {
+        if (doctorService.getDoctorCount() > 0 || patientService.getPatientCount() > 0
+                || appointmentService.getAppointmentCount() > 0 || billService.getBillCount() > 0) {
+            throw new IllegalStateException("Generated data can only be loaded into empty services");
+        }
+        long records = generator.generate(
+                doctorService::addDoctor,
+                patientService::addPatient,
+                appointment -> {
+                    try {
+                        appointmentService.scheduleAppointment(appointment);
+                    } catch (AppointmentConflictException e) {
+                        throw new IllegalStateException("Generated appointments must not overlap", e);
+                    }
+                },
+                billService::addBill);
+        advanceIdGenerator(doctorService, patientService, appointmentService, billService);
+        return records;
+    }
+
+    /**
+     * Move the ID generator past every loaded ID, so newly created entities cannot collide with them
+     */
+    static void advanceIdGenerator(DoctorService doctorService, PatientService patientService,
+                                   AppointmentService appointmentService, BillService billService) {
+        // Highest number per type in one pass, then one counter update per type
+        long[] highest = Stream.of(doctorService.streamDoctors(), patientService.streamPatients(),
+                        appointmentService.streamAppointments(), billService.streamBills())
+                .<MedicalEntity>flatMap(entities -> entities)
+                .collect(DataLoadService::noNumbers, DataLoadService::accumulateHighest,
+                        DataLoadService::combineHighest);
+        IdGenerator ids = IdGenerator.getInstance();
+        for (IdType type : IdType.values()) {
+            if (highest[type.ordinal()] >= 0) {
+                ids.advancePast(type, highest[type.ordinal()]);
+            }
+        }
+    }
+
+    private static long[] noNumbers() {
+        long[] highest = new long[IdType.values().length];
+        Arrays.fill(highest, -1);
+        return highest;
+    }
+
+    private static void accumulateHighest(long[] highest, MedicalEntity entity) {
+        EntityId key = new EntityId(entity.getKey());
+        IdType type = key.type();
+        long number = key.number();
+        if (type == null) {
+            // Registered (non-canonical) IDs may still carry a number, e.g. "PAT007"
+            type = IdType.of(entity.getId());
+            number = type == null ? -1 : type.parseNumber(entity.getId());
+        }
+        if (type != null && number > highest[type.ordinal()]) {
+            highest[type.ordinal()] = number;
+        }
+    }
+
+    private static void combineHighest(long[] into, long[] other) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] = Math.max(into[i], other[i]);
+        }
+    }
+
+    // Link phase: appointments must reference a known doctor and patient
+    private long countOrphanAppointments() {
+        return appointmentService.streamAppointments()
+                .filter(apt -> doctorService.getDoctorById(apt.getDoctorId()) == null
+                        || patientService.getPatientById(apt.getPatientId()) == null)
+                .count();
+    }
+
+    // Link phase: bills must reference a known appointment
+    private long countOrphanBills() {
+        return billService.streamBills()
+                .filter(bill -> !appointmentService.appointmentExists(bill.getAppointmentId()))
+                .count();
+    }
+
+    // splittable: the file has no free-text columns, so it may be chunked on line breaks
+    private static void submit(List<CompletableFuture<FileResult>> futures, ExecutorService executor,
+                               String file, boolean splittable, RecordLoader loader) {
+        if (file != null && new File(file).exists()) {
+            boolean chunked = splittable && new File(file).length() > Constants.PARALLEL_PARSE_THRESHOLD_BYTES;
+            futures.add(CompletableFuture.supplyAsync(() -> loadFile(file, chunked, loader), executor));
+        }
+    }
+
+    private static FileResult loadFile(String file, boolean chunked, RecordLoader loader) {
+        long start = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        Consumer<String[]> consumer = record -> {
+            try {
+                if (loader.load(record)) {
+                    loaded.incrementAndGet();
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                // Malformed row (bad number, enum or date): counted as rejected, the load goes on
+            }
+        };
+        try {
+            long records = chunked
+                    ? ParallelCSVReader.readCSV(file, Runtime.getRuntime().availableProcessors(), consumer)
+                    : CSVUtil.readCSV(file, consumer);
+            return new FileResult(file, records, loaded.get(), records - loaded.get(),
+                    toMillis(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileResult join(CompletableFuture<FileResult> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -2,22 +2,71 @@ package com.airtribe.meditrack.service;
 
 import com.airtribe.meditrack.entity.Doctor;
 import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.ConcurrentDataStore;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Page;
+import com.airtribe.meditrack.util.TrigramIndex;
+import com.airtribe.meditrack.util.WriteAheadLog;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.Comparator;
 import java.util.Optional;
 
 public class DoctorService {
     private DataStore<Doctor> doctorStore;
+    private volatile WriteAheadLog writeAheadLog;
+
+    // Keyword search over the fields Doctor.matches looks at
+    private final TrigramIndex<Doctor> searchIndex = new TrigramIndex<>(doctor -> new String[] {
+            doctor.getId(), doctor.getName(), String.valueOf(doctor.getSpecialization()) });
+
+    // Doctors per specialization, sorted by name. Each write is O(log n) and
+    // readers iterate without locking.
+    private final Map<Specialization, ConcurrentSkipListMap<NameKey, Doctor>> bySpecialization =
+            new EnumMap<>(Specialization.class);
+
+    // Where each doctor was filed, so it is found again after an in-place rename or move
+    private final Map<String, IndexedDoctor> indexedDoctors = new HashMap<>();
+
+    private record IndexedDoctor(Specialization specialization, NameKey nameKey) {
+    }
+
+    // ID breaks ties so two doctors with the same name never overwrite each other
+    private record NameKey(String name, String id) implements Comparable<NameKey> {
+        private static final Comparator<NameKey> ORDER = Comparator
+                .comparing(NameKey::name, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(NameKey::id);
+
+        @Override
+        public int compareTo(NameKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
 
     public DoctorService() {
-        this.doctorStore = new DataStore<>();
+        this.doctorStore = new ConcurrentDataStore<>();
+        for (Specialization specialization : Specialization.values()) {
+            bySpecialization.put(specialization, new ConcurrentSkipListMap<>());
+        }
     }
 
     public void addDoctor(Doctor doctor) {
-        doctorStore.add(doctor);
+        long sequence;
+        synchronized (this) {
+            doctorStore.add(doctor);
+            searchIndex.add(doctor);
+            partition(doctor);
+            sequence = log(WriteAheadLog.Operation.ADD_DOCTOR, doctor);
+        }
+        awaitDurable(sequence);
     }
 
     public Doctor getDoctorById(String id) {
@@ -28,24 +77,52 @@ public class DoctorService {
         return doctorStore.getAll();
     }
 
+    /**
+     * One page of doctors in ID order
+     * @param cursor the previous page's next cursor, or null for the first page
+     */
+    public Page<Doctor> getDoctorsPage(String cursor, int limit) {
+        return doctorStore.page(cursor, limit);
+    }
+
+    /**
+     * Lazy stream over all doctors, without copying them into a list
+     */
+    public Stream<Doctor> streamDoctors() {
+        return doctorStore.stream();
+    }
+
     public List<Doctor> searchDoctors(String keyword) {
-        return doctorStore.getAll().stream()
-                .filter(doctor -> doctor.matches(keyword))
-                .collect(Collectors.toList());
+        List<String> candidates = searchIndex.candidates(keyword);
+        if (candidates == null) {
+            // Too short for a trigram lookup
+            return doctorStore.stream()
+                    .filter(doctor -> doctor.matches(keyword))
+                    .collect(Collectors.toList());
+        }
+        List<Doctor> results = new ArrayList<>(candidates.size());
+        for (String id : candidates) {
+            Doctor doctor = doctorStore.getById(id);
+            if (doctor != null && doctor.matches(keyword)) {
+                results.add(doctor);
+            }
+        }
+        return results;
     }
 
-    // Stream & Lambda : Filter doctors by specialization
-    public List<Doctor> getDoctorsBySpecialization(Specialization specialization) {
-        return doctorStore.getAll().stream()
-                .filter(doctor -> doctor.getSpecialization() == specialization)
-                .sorted(Comparator.comparing(Doctor::getName))
-                .collect(Collectors.toList());
+    /**
+     * Doctors of the given specialization sorted by name, as a read-only view of
+     * the partition: nothing is copied, and iteration sees later writes weakly
+     * (never fails, never repeats a doctor)
+     */
+    public Collection<Doctor> getDoctorsBySpecialization(Specialization specialization) {
+        return Collections.unmodifiableCollection(bySpecialization.get(specialization).values());
     }
 
 
 //    Stream & Lambda : Calculate average consultation fee
     public double getAverageConsultationFee() {
-        return doctorStore.getAll().stream()
+        return doctorStore.stream()
                 .mapToDouble(Doctor::getConsultationFee)
                 .average()
                 .orElse(0.0);
@@ -53,14 +130,73 @@ public class DoctorService {
 
 
     public void updateDoctor(Doctor doctor) {
-        doctorStore.update(doctor);
+        long sequence = 0;
+        synchronized (this) {
+            if (doctorStore.exists(doctor.getId())) {
+                doctorStore.update(doctor);
+                searchIndex.add(doctor);
+                partition(doctor);
+                sequence = log(WriteAheadLog.Operation.UPDATE_DOCTOR, doctor);
+            }
+        }
+        awaitDurable(sequence);
     }
 
     public void deleteDoctor(String id) {
-        doctorStore.delete(id);
+        long sequence;
+        synchronized (this) {
+            doctorStore.delete(id);
+            searchIndex.remove(id);
+            unpartition(id);
+            sequence = log(WriteAheadLog.Operation.DELETE_DOCTOR, id);
+        }
+        awaitDurable(sequence);
     }
 
     public int getDoctorCount() {
         return doctorStore.size();
     }
+
+    /**
+     * Record every mutation in the given log (null disables logging)
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    // Callers hold the service lock
+    private void partition(Doctor doctor) {
+        unpartition(doctor.getId());
+        Specialization specialization = doctor.getSpecialization();
+        if (specialization == null) {
+            return;
+        }
+        NameKey nameKey = new NameKey(doctor.getName(), doctor.getId());
+        bySpecialization.get(specialization).put(nameKey, doctor);
+        indexedDoctors.put(doctor.getId(), new IndexedDoctor(specialization, nameKey));
+    }
+
+    private void unpartition(String id) {
+        IndexedDoctor previous = indexedDoctors.remove(id);
+        if (previous != null) {
+            bySpecialization.get(previous.specialization()).remove(previous.nameKey());
+        }
+    }
+
+    private long log(WriteAheadLog.Operation operation, Doctor entity) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, entity);
+    }
+
+    private long log(WriteAheadLog.Operation operation, String id) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, id);
+    }
+
+    private void awaitDurable(long sequence) {
+        WriteAheadLog wal = writeAheadLog;
+        if (wal != null && sequence > 0) {
+            wal.awaitDurable(sequence);
+        }
+    }
 }
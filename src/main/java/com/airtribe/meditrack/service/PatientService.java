@@ -1,19 +1,54 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.ConcurrentDataStore;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Page;
+import com.airtribe.meditrack.util.PrefixIndex;
+import com.airtribe.meditrack.util.SecondaryIndex;
+import com.airtribe.meditrack.util.TrigramIndex;
+import com.airtribe.meditrack.util.WriteAheadLog;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class PatientService {
     private DataStore<Patient> patientStore;
+    private volatile WriteAheadLog writeAheadLog;
+
+    // Keyword search over the fields Patient.matches looks at
+    private final TrigramIndex<Patient> searchIndex = new TrigramIndex<>(patient -> new String[] {
+            patient.getId(), patient.getName(), patient.getContact() });
+
+    // Front-desk autocomplete over IDs, phone numbers and every word of the name
+    private final PrefixIndex<Patient> autocompleteIndex = new PrefixIndex<>(PatientService::completionTerms);
+
+    // One bucket per valid age; ages outside MIN_AGE..MAX_AGE share one bucket
+    private static final int OUT_OF_RANGE_AGE = -1;
+    private final SecondaryIndex<Integer, Patient> ageIndex = new SecondaryIndex<>();
+
+    // Age bucket each patient was indexed under, so in-place setAge calls are
+    // picked up by the next updatePatient
+    private final Map<String, Integer> indexedAges = new HashMap<>();
 
     public PatientService() {
-        this.patientStore = new DataStore<>();
+        this.patientStore = new ConcurrentDataStore<>();
     }
 
     public void addPatient(Patient patient) {
-        patientStore.add(patient);
+        long sequence;
+        synchronized (this) {
+            patientStore.add(patient);
+            searchIndex.add(patient);
+            autocompleteIndex.add(patient);
+            indexAge(patient);
+            sequence = log(WriteAheadLog.Operation.ADD_PATIENT, patient);
+        }
+        awaitDurable(sequence);
     }
 
     public Patient getPatientById(String id) {
@@ -24,38 +59,196 @@ public class PatientService {
         return patientStore.getAll();
     }
 
+    /**
+     * One page of patients in ID order
+     * @param cursor the previous page's next cursor, or null for the first page
+     */
+    public Page<Patient> getPatientsPage(String cursor, int limit) {
+        return patientStore.page(cursor, limit);
+    }
+
+    /**
+     * Lazy stream over all patients, without copying them into a list
+     */
+    public Stream<Patient> streamPatients() {
+        return patientStore.stream();
+    }
+
     public List<Patient> searchPatient(String keyword) {
-        return patientStore.getAll().stream()
-                .filter(patient -> patient.matches(keyword))
-                .collect(Collectors.toList());
+        List<String> candidates = searchIndex.candidates(keyword);
+        if (candidates == null) {
+            // Too short for a trigram lookup
+            return patientStore.stream()
+                    .filter(patient -> patient.matches(keyword))
+                    .collect(Collectors.toList());
+        }
+        List<Patient> results = new ArrayList<>(candidates.size());
+        for (String id : candidates) {
+            Patient patient = patientStore.getById(id);
+            if (patient != null && patient.matches(keyword)) {
+                results.add(patient);
+            }
+        }
+        return results;
     }
 
     public Patient searchPatient(String id, boolean exactMatch) {
         if (exactMatch) {
             return patientStore.getById(id);
         }
-        return patientStore.getAll().stream()
-                .filter(patient -> patient.getId().contains(id))
-                .findFirst()
-                .orElse(null);
+        List<String> candidates = searchIndex.candidates(id);
+        if (candidates == null) {
+            return patientStore.stream()
+                    .filter(patient -> patient.getId().contains(id))
+                    .findFirst()
+                    .orElse(null);
+        }
+        for (String candidate : candidates) {
+            if (candidate.contains(id)) {
+                return patientStore.getById(candidate);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Patients whose name (any word), phone number or ID starts with the prefix
+     * @param limit at most {@link PrefixIndex#MAX_RESULTS}
+     * @return most recently updated patients first
+     */
+    public List<Patient> autocomplete(String prefix, int limit) {
+        List<Patient> results = new ArrayList<>();
+        for (String id : autocompleteIndex.complete(prefix, limit)) {
+            Patient patient = patientStore.getById(id);
+            if (patient != null) {
+                results.add(patient);
+            }
+        }
+        return results;
     }
 
     public List<Patient> searchPatient(int minAge, int maxAge) {
-        return patientStore.getAll().stream()
-                .filter(patient -> patient.getAge() >= minAge && patient.getAge() <= maxAge)
-                .collect(Collectors.toList());
+        List<Patient> results = new ArrayList<>();
+        int from = Math.max(minAge, Constants.MIN_AGE);
+        int to = Math.min(maxAge, Constants.MAX_AGE);
+        for (int age = from; age <= to; age++) {
+            results.addAll(ageIndex.get(age));
+        }
+        if (minAge < Constants.MIN_AGE || maxAge > Constants.MAX_AGE) {
+            for (Patient patient : ageIndex.get(OUT_OF_RANGE_AGE)) {
+                if (patient.getAge() >= minAge && patient.getAge() <= maxAge) {
+                    results.add(patient);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Number of patients aged minAge..maxAge (inclusive), without building the list
+     */
+    public int countPatients(int minAge, int maxAge) {
+        int count = 0;
+        int from = Math.max(minAge, Constants.MIN_AGE);
+        int to = Math.min(maxAge, Constants.MAX_AGE);
+        for (int age = from; age <= to; age++) {
+            count += ageIndex.count(age);
+        }
+        if (minAge < Constants.MIN_AGE || maxAge > Constants.MAX_AGE) {
+            for (Patient patient : ageIndex.get(OUT_OF_RANGE_AGE)) {
+                if (patient.getAge() >= minAge && patient.getAge() <= maxAge) {
+                    count++;
+                }
+            }
+        }
+        return count;
     }
 
 
     public void updatePatient(Patient patient) {
-        patientStore.update(patient);
+        long sequence = 0;
+        synchronized (this) {
+            if (patientStore.exists(patient.getId())) {
+                patientStore.update(patient);
+                searchIndex.add(patient);
+                autocompleteIndex.add(patient);
+                indexAge(patient);
+                sequence = log(WriteAheadLog.Operation.UPDATE_PATIENT, patient);
+            }
+        }
+        awaitDurable(sequence);
     }
 
     public void deletePatient(String id) {
-        patientStore.delete(id);
+        long sequence;
+        synchronized (this) {
+            patientStore.delete(id);
+            searchIndex.remove(id);
+            autocompleteIndex.remove(id);
+            unindexAge(id);
+            sequence = log(WriteAheadLog.Operation.DELETE_PATIENT, id);
+        }
+        awaitDurable(sequence);
     }
 
     public int getPatientCount() {
         return patientStore.size();
     }
+
+    /**
+     * Record every mutation in the given log (null disables logging)
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    // Callers hold the service lock
+    private void indexAge(Patient patient) {
+        unindexAge(patient.getId());
+        int age = patient.getAge();
+        int bucket = age >= Constants.MIN_AGE && age <= Constants.MAX_AGE ? age : OUT_OF_RANGE_AGE;
+        ageIndex.add(bucket, patient);
+        indexedAges.put(patient.getId(), bucket);
+    }
+
+    private void unindexAge(String id) {
+        Integer bucket = indexedAges.remove(id);
+        if (bucket != null) {
+            ageIndex.remove(bucket, id);
+        }
+    }
+
+    private static List<String> completionTerms(Patient patient) {
+        List<String> terms = new ArrayList<>();
+        terms.add(patient.getId());
+        terms.add(patient.getContact());
+        String name = patient.getName();
+        if (name != null) {
+            // The full name, then the name from each later word on ("Priya Patel" -> "Patel")
+            terms.add(name);
+            for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                if (i + 1 < name.length() && name.charAt(i + 1) != ' ') {
+                    terms.add(name.substring(i + 1));
+                }
+            }
+        }
+        return terms;
+    }
+
+    private long log(WriteAheadLog.Operation operation, Patient entity) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, entity);
+    }
+
+    private long log(WriteAheadLog.Operation operation, String id) {
+        WriteAheadLog wal = writeAheadLog;
+        return wal == null ? 0 : wal.append(operation, id);
+    }
+
+    private void awaitDurable(long sequence) {
+        WriteAheadLog wal = writeAheadLog;
+        if (wal != null && sequence > 0) {
+            wal.awaitDurable(sequence);
+        }
+    }
 }
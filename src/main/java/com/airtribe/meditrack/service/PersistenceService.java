@@ -0,0 +1,223 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.util.BinaryDecoder;
+import com.airtribe.meditrack.util.SnapshotReader;
+import com.airtribe.meditrack.util.SnapshotWriter;
+import com.airtribe.meditrack.util.WriteAheadLog;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves and restores the state of all services as a binary snapshot,
+ * optionally backed by a write-ahead log of every mutation since the last snapshot
+ * Recovery loads the snapshot and replays the log on top of it. Every logged
+ * operation carries the full entity state (or is idempotent), so replaying records
+ * that the snapshot already contains is harmless.
+ */
+public class PersistenceService {
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final BillService billService;
+
+    private WriteAheadLog writeAheadLog;
+    private ExecutorService compactor;
+    private Path snapshotPath;
+    private Path walPath;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    public PersistenceService(DoctorService doctorService, PatientService patientService,
+                              AppointmentService appointmentService, BillService billService) {
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        this.billService = billService;
+    }
+
+    /**
+     * Write every doctor, patient, appointment and bill to the snapshot file
+     * The existing snapshot is replaced only once everything has been written.
+     * @return the number of records written
+     */
+    public long saveSnapshot(Path snapshot) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(snapshot)) {
+            doctorService.streamDoctors().forEach(writer::writeDoctor);
+            patientService.streamPatients().forEach(writer::writePatient);
+            appointmentService.streamAppointments().forEach(writer::writeAppointment);
+            billService.streamBills().forEach(writer::writeBill);
+            writer.commit();
+            return writer.getRecordCount();
+        }
+    }
+
+    /**
+     * Load a snapshot into the services
+     * @return the number of records read
+     */
+    public long loadSnapshot(Path snapshot) throws IOException {
+        long records = readSnapshot(snapshot);
+        DataLoadService.advanceIdGenerator(doctorService, patientService, appointmentService, billService);
+        return records;
+    }
+
+    /**
+     * Restore the last snapshot (if any) and replay the write-ahead log on top of it
+     * A log left behind by an interrupted compaction is replayed first.
+     * @return the number of snapshot and log records applied
+     */
+    public long recover(Path snapshot, Path wal) throws IOException {
+        long records = Files.exists(snapshot) ? readSnapshot(snapshot) : 0;
+        records += WriteAheadLog.replay(compactingPath(wal), this::apply);
+        records += WriteAheadLog.replay(wal, this::apply);
+        DataLoadService.advanceIdGenerator(doctorService, patientService, appointmentService, billService);
+        return records;
+    }
+
+    /**
+     * Start logging every service mutation to the write-ahead log
+     * Once the log grows past the compaction threshold a fresh snapshot is taken
+     * in the background and the log is truncated.
+     */
+    public synchronized void enableWriteAheadLog(Path snapshot, Path wal) throws IOException {
+        if (writeAheadLog != null) {
+            throw new IllegalStateException("Write-ahead log is already enabled");
+        }
+        this.snapshotPath = snapshot;
+        this.walPath = wal;
+        this.writeAheadLog = WriteAheadLog.open(wal, Constants.WAL_GROUP_COMMIT_MILLIS);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "meditrack-wal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        WriteAheadLog log = writeAheadLog;
+        log.setCompactionTrigger(Constants.WAL_COMPACTION_THRESHOLD, () -> scheduleCompaction(log));
+
+        doctorService.setWriteAheadLog(writeAheadLog);
+        patientService.setWriteAheadLog(writeAheadLog);
+        appointmentService.setWriteAheadLog(writeAheadLog);
+        billService.setWriteAheadLog(writeAheadLog);
+    }
+
+    /**
+     * Fold the write-ahead log into a new snapshot
+     * The log is rotated aside first, so mutations that race with the snapshot land
+     * in the fresh log and are replayed over it on recovery. The archived log is
+     * deleted only once the new snapshot is committed; if an earlier compaction
+     * failed, its archive is kept and the current log is left where it is.
+     * @return the number of records in the new snapshot
+     */
+    public long compact() throws IOException {
+        WriteAheadLog wal;
+        synchronized (this) {
+            wal = writeAheadLog;
+        }
+        if (wal == null) {
+            throw new IllegalStateException("Write-ahead log is not enabled");
+        }
+        Path archive = compactingPath(walPath);
+        if (!Files.exists(archive)) {
+            wal.rotate(archive);
+        }
+        long records = saveSnapshot(snapshotPath);
+        Files.deleteIfExists(archive);
+        return records;
+    }
+
+    /**
+     * Stop logging and close the write-ahead log
+     */
+    public synchronized void close() throws IOException {
+        if (writeAheadLog == null) {
+            return;
+        }
+        doctorService.setWriteAheadLog(null);
+        patientService.setWriteAheadLog(null);
+        appointmentService.setWriteAheadLog(null);
+        billService.setWriteAheadLog(null);
+
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeAheadLog.close();
+        writeAheadLog = null;
+        compactor = null;
+    }
+
+    // Called on every append past the threshold; only one compaction runs at a time
+    private void scheduleCompaction(WriteAheadLog wal) {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Write-ahead log compaction failed: " + e);
+            } finally {
+                // Retry only after another threshold of records, whether this one worked or not
+                wal.rearmCompaction();
+                compacting.set(false);
+            }
+        });
+    }
+
+    private long readSnapshot(Path snapshot) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(snapshot)) {
+            return reader.readAll(
+                    doctorService::addDoctor,
+                    patientService::addPatient,
+                    appointmentService::restoreAppointment,
+                    billService::addBill);
+        }
+    }
+
+    private void apply(WriteAheadLog.Operation operation, BinaryDecoder payload) throws IOException {
+        switch (operation) {
+            case ADD_DOCTOR -> doctorService.addDoctor(payload.getDoctor());
+            case UPDATE_DOCTOR -> doctorService.updateDoctor(payload.getDoctor());
+            case DELETE_DOCTOR -> doctorService.deleteDoctor(payload.getString());
+            case ADD_PATIENT -> patientService.addPatient(payload.getPatient());
+            case UPDATE_PATIENT -> patientService.updatePatient(payload.getPatient());
+            case DELETE_PATIENT -> patientService.deletePatient(payload.getString());
+            case SCHEDULE_APPOINTMENT -> appointmentService.restoreAppointment(payload.getAppointment());
+            case UPDATE_APPOINTMENT -> appointmentService.restoreUpdate(payload.getAppointment());
+            case ADD_BILL -> billService.addBill(payload.getBill());
+            case UPDATE_BILL -> billService.updateBill(payload.getBill());
+            case PAY_BILL -> billService.processBillPayment(payload.getString());
+            default -> applyStatusChange(operation, payload.getString());
+        }
+    }
+
+    private void applyStatusChange(WriteAheadLog.Operation operation, String appointmentId) throws IOException {
+        AppointmentStatus status = switch (operation) {
+            case CONFIRM_APPOINTMENT -> AppointmentStatus.CONFIRMED;
+            case COMPLETE_APPOINTMENT -> AppointmentStatus.COMPLETED;
+            case CANCEL_APPOINTMENT -> AppointmentStatus.CANCELLED;
+            default -> throw new IOException("Unexpected write-ahead log operation " + operation);
+        };
+        try {
+            // Logged history is replayed as-is, without the double-booking check
+            appointmentService.restoreStatus(appointmentId, status);
+        } catch (AppointmentNotFoundException e) {
+            throw new IOException("Write-ahead log refers to a missing appointment", e);
+        }
+    }
+
+    private static Path compactingPath(Path wal) {
+        return wal.resolveSibling(wal.getFileName() + COMPACTING_SUFFIX);
+    }
+}
@@ -1,11 +1,22 @@
 package com.airtribe.meditrack.test;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.*;
+import com.airtribe.meditrack.exception.AppointmentConflictException;
 import com.airtribe.meditrack.service.*;
 import com.airtribe.meditrack.util.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manual test runner (no JUnit)
@@ -28,6 +39,23 @@ public class TestRunner {
         testMethodOverloading();
         testStreamsAndLambdas();
         testImmutableClass();
+        testConcurrentDataStore();
+        testRevenueAggregates();
+        testCsvRoundTrip();
+        testCsvLoad();
+        testBinarySnapshot();
+        testWriteAheadLog();
+        testSearchIndex();
+        testAutocomplete();
+        testAgeIndex();
+        testPagination();
+        testDataGenerator();
+        testIdLeasing();
+        testEntityIds();
+        testLongHashDataStore();
+        testStatusIndex();
+        testMoney();
+        testColumnarAnalytics();
         
         System.out.println("\n" + "=".repeat(60));
         System.out.println("  All Tests Completed Successfully!");
@@ -174,9 +202,47 @@ public class TestRunner {
             AppointmentStatus.SCHEDULED
         );
         
-        appointmentService.scheduleAppointment(appointment1);
+        Appointment overlapping = new Appointment(
+            IdGenerator.newAppointmentId(),
+            "PAT2002",
+            "DOC1001",
+            appointment1.getAppointmentTime().plusMinutes(10),
+            AppointmentStatus.SCHEDULED
+        );
+        
+        try {
+            appointmentService.scheduleAppointment(appointment1);
+            appointmentService.scheduleAppointment(overlapping);
+            System.out.println("  Error: double booking was accepted");
+        } catch (AppointmentConflictException e) {
+            System.out.println("  Double booking rejected: " + e.getMessage());
+        }
+        
+        // Rescheduling in place onto a booked slot must be caught by the update too
+        LocalDateTime later = appointment1.getAppointmentTime().plusHours(2);
+        try {
+            Appointment moved = new Appointment(IdGenerator.newAppointmentId(), "PAT2002", "DOC1001",
+                later, AppointmentStatus.SCHEDULED);
+            appointmentService.scheduleAppointment(moved);
+            moved.setAppointmentTime(appointment1.getAppointmentTime().plusMinutes(10));
+            try {
+                appointmentService.updateAppointment(moved);
+                System.out.println("  Error: double booking by update was accepted");
+            } catch (AppointmentConflictException e) {
+                // The in-place edit is rolled back, so the stored instance matches the schedule again
+                System.out.println("  Double booking by update rejected, time restored: "
+                    + moved.getAppointmentTime().equals(later) + ", still booked: "
+                    + !appointmentService.isSlotAvailable("DOC1001", later));
+            }
+        } catch (AppointmentConflictException e) {
+            System.out.println("  Error: " + e.getMessage());
+        }
         System.out.println("  Scheduled: " + appointment1);
         System.out.println("  Total appointments: " + appointmentService.getAppointmentCount());
+        System.out.println("  By doctor DOC1001: " + appointmentService.getAppointmentsByDoctor("DOC1001").size());
+        System.out.println("  By patient PAT2001: " + appointmentService.getAppointmentsByPatient("PAT2001").size());
+        System.out.println("  Next free slot: " + appointmentService.findNextAvailableSlot(
+            "DOC1001", appointment1.getAppointmentTime()));
         
         try {
             appointmentService.confirmAppointment(appointment1.getAppointmentId());
@@ -185,6 +251,22 @@ public class TestRunner {
             System.out.println("  Error: " + e.getMessage());
         }
         
+        // A cancelled slot can be re-booked; confirming the cancelled one must not double-book it
+        try {
+            appointmentService.cancelAppointment(appointment1.getAppointmentId());
+            appointmentService.scheduleAppointment(new Appointment(IdGenerator.newAppointmentId(), "PAT2002",
+                "DOC1001", appointment1.getAppointmentTime(), AppointmentStatus.SCHEDULED));
+            try {
+                appointmentService.confirmAppointment(appointment1.getAppointmentId());
+                System.out.println("  Error: confirming a re-booked cancellation was accepted");
+            } catch (AppointmentConflictException e) {
+                System.out.println("  Re-confirming a re-booked slot rejected, status still: "
+                    + appointment1.getStatus());
+            }
+        } catch (Exception e) {
+            System.out.println("  Error: " + e.getMessage());
+        }
+        
         System.out.println("  ✓ AppointmentService working correctly");
     }
 
@@ -246,9 +328,27 @@ public class TestRunner {
         
         System.out.println("  Average fee: ₹" + doctorService.getAverageConsultationFee());
         
-        List<Doctor> cardiologists = doctorService.getDoctorsBySpecialization(Specialization.CARDIOLOGIST);
+        Collection<Doctor> cardiologists = doctorService.getDoctorsBySpecialization(Specialization.CARDIOLOGIST);
         System.out.println("  Cardiologists: " + cardiologists.size());
         
+        // Moving a doctor to another specialization updates both partitions
+        Doctor moved = doctorService.getDoctorById("D003");
+        moved.setSpecialization(Specialization.CARDIOLOGIST);
+        doctorService.updateDoctor(moved);
+        System.out.println("  Cardiologists after update: "
+            + doctorService.getDoctorsBySpecialization(Specialization.CARDIOLOGIST).stream()
+                .map(Doctor::getName).toList());
+        System.out.println("  Dermatologists after update: "
+            + doctorService.getDoctorsBySpecialization(Specialization.DERMATOLOGIST).size());
+        
+        // Renaming in place re-sorts the partition
+        Doctor renamed = doctorService.getDoctorById("D001");
+        renamed.setName("Dr. Z");
+        doctorService.updateDoctor(renamed);
+        System.out.println("  Cardiologists after rename: "
+            + doctorService.getDoctorsBySpecialization(Specialization.CARDIOLOGIST).stream()
+                .map(Doctor::getName).toList());
+        
         System.out.println("  ✓ Streams and Lambdas working correctly");
     }
 
@@ -271,4 +371,689 @@ public class TestRunner {
         
         System.out.println("  ✓ Immutable class working correctly");
     }
+
+    private static void testRevenueAggregates() {
+        System.out.println("\n[TEST] Testing BillService revenue aggregates...");
+        BillService billService = new BillService();
+        
+        Bill consultation = BillFactory.createConsultationBill("APT3001", 1000.0);
+        Bill surgery = BillFactory.createSurgeryBill("APT3002", 5000.0, 2000.0);
+        billService.addBill(consultation);
+        billService.addBill(surgery);
+        billService.processBillPayment(consultation.getBillId());
+        
+        surgery.setAdditionalCharges(2500.0);
+        billService.updateBill(surgery);
+        
+        System.out.println("  Paid: " + billService.getPaidBillCount() + " bills, ₹" + billService.getTotalRevenue());
+        System.out.println("  Unpaid: " + billService.getUnpaidBillCount() + " bills, ₹" + billService.getTotalPending());
+        System.out.println("  Surgery pending: ₹" + billService.getPendingByType(BillType.SURGERY));
+        System.out.println("  Unpaid list: " + billService.getUnpaidBills().size()
+            + ", bills for APT3001: " + billService.getBillsByAppointment("APT3001").size());
+        System.out.println("  Aggregates consistent: " + billService.verifyAggregates());
+        System.out.println("  ✓ Revenue aggregates working correctly");
+    }
+
+    private static void testCsvRoundTrip() {
+        System.out.println("\n[TEST] Testing CSV round trip (RFC 4180 quoting)...");
+        
+        Patient patient = new Patient("PAT2999", "Doe, \"Johnny\"", 40, "9123456789",
+            "Diabetes, type 2\nHypertension");
+        patient.addAllergy("Latex");
+        
+        String line = patient.toCSV();
+        Patient parsed = Patient.fromCSV(CSVUtil.parseLine(line));
+        
+        System.out.println("  CSV: " + line.replace("\n", "\\n"));
+        System.out.println("  Name preserved: " + patient.getName().equals(parsed.getName()));
+        System.out.println("  History preserved: " + patient.getMedicalHistory().equals(parsed.getMedicalHistory()));
+        System.out.println("  Allergies preserved: " + patient.getAllergies().equals(parsed.getAllergies()));
+        System.out.println("  ✓ CSV quoting working correctly");
+    }
+
+    private static void testCsvLoad() {
+        System.out.println("\n[TEST] Testing CSV load with malformed rows...");
+        
+        try {
+            java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("meditrack-csv");
+            java.nio.file.Path doctorsFile = dir.resolve("doctors.csv");
+            java.nio.file.Path appointmentsFile = dir.resolve("appointments.csv");
+            java.nio.file.Files.write(doctorsFile, List.of(
+                "DOC1801,Dr. Good,45,9876500001,CARDIOLOGIST,1500.0",
+                "DOC1802,Dr. Bad Fee,45,9876500002,CARDIOLOGIST,lots",
+                "DOC1803,Dr. Bad Specialty,45,9876500003,ASTROLOGER,900.0",
+                "D1804,Dr. Legacy,50,9876500004,NEUROLOGIST,1200.0"));
+            java.nio.file.Files.write(appointmentsFile, List.of(
+                "APT3801,PAT2001,DOC1801,15-01-2026 10:00,CONFIRMED",
+                "APT3803,PAT2002,DOC1801,15-01-2026 10:00,COMPLETED",
+                "APT3802,PAT2001,DOC1801,31-02-2026 25:00,CONFIRMED",
+                "APT3804,PAT2001,D1804,16-01-2026 10:00,SCHEDULED"));
+            
+            DoctorService doctors = new DoctorService();
+            AppointmentService appointments = new AppointmentService();
+            DataLoadService.LoadReport report = new DataLoadService(doctors, new PatientService(),
+                appointments, new BillService()).loadFromCSV(doctorsFile.toString(), null,
+                appointmentsFile.toString(), null);
+            for (DataLoadService.FileResult file : report.files()) {
+                System.out.println("  " + file.file().substring(dir.toString().length() + 1) + ": loaded "
+                    + file.loaded() + ", rejected " + file.rejected());
+            }
+            System.out.println("  Doctors: " + doctors.getAllDoctors().size() + " (expected 2), appointments: "
+                + appointments.getAppointmentCount() + " (expected 3, overlap kept)");
+            // Whichever file was parsed first, the link phase resolves the legacy doctor ID
+            System.out.println("  Appointments of D1804: " + appointments.getAppointmentsByDoctor("D1804").size()
+                + " (expected 1)");
+            
+            Appointment early = new Appointment("APT3805", "PAT2001", "D1805", LocalDateTime.now(),
+                AppointmentStatus.SCHEDULED);
+            boolean before = early.resolveReferences();
+            new Doctor("D1805", "Dr. Late", 50, "9876500005", Specialization.NEUROLOGIST, 1200.0);
+            System.out.println("  Reference resolved once the doctor exists: " + before + " -> "
+                + early.resolveReferences() + ", doctor " + early.getDoctorId());
+            java.nio.file.Files.delete(doctorsFile);
+            java.nio.file.Files.delete(appointmentsFile);
+            java.nio.file.Files.delete(dir);
+            System.out.println("  ✓ Malformed rows skipped correctly");
+        } catch (Exception e) {
+            System.out.println("  ✗ Load aborted: " + e);
+        }
+    }
+
+    private static void testBinarySnapshot() {
+        System.out.println("\n[TEST] Testing binary snapshot save/restore...");
+        
+        DoctorService doctors = new DoctorService();
+        PatientService patients = new PatientService();
+        AppointmentService appointments = new AppointmentService();
+        BillService bills = new BillService();
+        
+        doctors.addDoctor(new Doctor("DOC1900", "Dr. Snapshot", 50, "9876500000",
+            Specialization.NEUROLOGIST, 2000.0));
+        Patient patient = new Patient("PAT2900", "Saved, Patient", 33, "9123400000", "Migraine");
+        patient.addAllergy("Aspirin");
+        patients.addPatient(patient);
+        Appointment appointment = new Appointment("APT3900", "PAT2900", "DOC1900",
+            LocalDateTime.of(2026, 1, 15, 10, 30), AppointmentStatus.CONFIRMED);
+        appointment.addNote("room", "4B");
+        try {
+            appointments.scheduleAppointment(appointment);
+        } catch (AppointmentConflictException e) {
+            System.out.println("  Error: " + e.getMessage());
+        }
+        Bill bill = BillFactory.createConsultationBill("APT3900", 2000.0);
+        bill.processPayment();
+        bills.addBill(bill);
+        
+        try {
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("meditrack", ".snapshot");
+            long written = new PersistenceService(doctors, patients, appointments, bills).saveSnapshot(file);
+            
+            PatientService restoredPatients = new PatientService();
+            AppointmentService restoredAppointments = new AppointmentService();
+            BillService restoredBills = new BillService();
+            long read = new PersistenceService(new DoctorService(), restoredPatients,
+                restoredAppointments, restoredBills).loadSnapshot(file);
+            
+            // A save that fails partway must leave the previous snapshot in place
+            try (SnapshotWriter writer = new SnapshotWriter(file)) {
+                writer.writePatient(patient);
+                throw new java.io.IOException("simulated failure");
+            } catch (java.io.IOException expected) {
+                // the writer is closed without a commit
+            }
+            long kept = new PersistenceService(new DoctorService(), new PatientService(),
+                new AppointmentService(), new BillService()).loadSnapshot(file);
+            
+            // Two overlapping saves to one target each write their own temp file
+            try (SnapshotWriter first = new SnapshotWriter(file); SnapshotWriter second = new SnapshotWriter(file)) {
+                first.writePatient(patient);
+                second.writePatient(patient);
+                second.writePatient(patient);
+                first.commit();
+                second.commit();
+            }
+            long overlapped = new PersistenceService(new DoctorService(), new PatientService(),
+                new AppointmentService(), new BillService()).loadSnapshot(file);
+            boolean tempRemoved;
+            try (java.nio.file.DirectoryStream<java.nio.file.Path> leftovers = java.nio.file.Files.newDirectoryStream(
+                    file.toAbsolutePath().getParent(), file.getFileName() + ".*.tmp")) {
+                tempRemoved = !leftovers.iterator().hasNext();
+            }
+            java.nio.file.Files.deleteIfExists(file);
+            
+            Appointment restored = restoredAppointments.getAppointmentById("APT3900");
+            System.out.println("  Records written/read: " + written + "/" + read);
+            System.out.println("  Patient allergies: " + restoredPatients.getPatientById("PAT2900").getAllergies());
+            // Autocomplete ranks by recency, so restored entities keep their timestamps
+            System.out.println("  Timestamps restored: "
+                + restoredPatients.getPatientById("PAT2900").getUpdatedAt().equals(patient.getUpdatedAt())
+                + " " + restored.getCreatedAt().equals(appointment.getCreatedAt()));
+            System.out.println("  Appointment time/notes: " + restored.getAppointmentTime() + " " + restored.getNotes());
+            System.out.println("  Revenue restored: ₹" + restoredBills.getTotalRevenue());
+            System.out.println("  Records after failed save: " + kept + " (expected " + written
+                + "), temp file removed: " + tempRemoved);
+            System.out.println("  Records after overlapping saves: " + overlapped + " (expected 2, last commit wins)");
+            System.out.println("  ✓ Binary snapshot working correctly");
+        } catch (Exception e) {
+            System.out.println("  Error: " + e.getMessage());
+        }
+    }
+
+    private static void testWriteAheadLog() {
+        System.out.println("\n[TEST] Testing write-ahead log recovery...");
+        
+        try {
+            java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("meditrack-wal");
+            java.nio.file.Path snapshot = dir.resolve("meditrack.snapshot");
+            java.nio.file.Path wal = dir.resolve("meditrack.wal");
+            
+            DoctorService doctors = new DoctorService();
+            PatientService patients = new PatientService();
+            AppointmentService appointments = new AppointmentService();
+            BillService bills = new BillService();
+            PersistenceService persistence = new PersistenceService(doctors, patients, appointments, bills);
+            persistence.enableWriteAheadLog(snapshot, wal);
+            
+            doctors.addDoctor(new Doctor("DOC1950", "Dr. Logged", 41, "9876511111",
+                Specialization.ORTHOPEDIC, 1200.0));
+            Patient logged = new Patient("PAT2950", "Logged Patient", 29, "9123411111", "None");
+            patients.addPatient(logged);
+            patients.addPatient(new Patient("PAT2951", "Removed Patient", 35, "9123422222", "None"));
+            appointments.scheduleAppointment(new Appointment("APT3950", "PAT2950", "DOC1950",
+                LocalDateTime.of(2026, 2, 1, 9, 0), AppointmentStatus.PENDING));
+            // Compact half way so recovery needs both the snapshot and the log
+            persistence.compact();
+            appointments.confirmAppointment("APT3950");
+            patients.deletePatient("PAT2951");
+            Bill bill = BillFactory.createConsultationBill("APT3950", 1200.0);
+            bills.addBill(bill);
+            bills.processBillPayment(bill.getId());
+            persistence.close();
+            
+            PatientService recoveredPatients = new PatientService();
+            AppointmentService recoveredAppointments = new AppointmentService();
+            BillService recoveredBills = new BillService();
+            long records = new PersistenceService(new DoctorService(), recoveredPatients,
+                recoveredAppointments, recoveredBills).recover(snapshot, wal);
+            
+            System.out.println("  Records recovered: " + records);
+            System.out.println("  Patients after delete: " + recoveredPatients.getPatientCount()
+                + ", last update kept: " + recoveredPatients.getPatientById("PAT2950").getUpdatedAt()
+                    .equals(logged.getUpdatedAt()));
+            System.out.println("  Appointment status: " + recoveredAppointments.getAppointmentById("APT3950").getStatus());
+            System.out.println("  Revenue recovered: ₹" + recoveredBills.getTotalRevenue());
+            
+            
+            // The trigger keeps firing past the threshold until a compaction re-arms it
+            java.nio.file.Path triggerLog = dir.resolve("trigger.wal");
+            int[] fired = new int[1];
+            try (WriteAheadLog log = WriteAheadLog.open(triggerLog, 0)) {
+                log.setCompactionTrigger(3, () -> fired[0]++);
+                for (int i = 0; i < 5; i++) {
+                    log.append(WriteAheadLog.Operation.DELETE_PATIENT, "PAT" + i);
+                }
+                int beforeRearm = fired[0];
+                log.rearmCompaction();
+                for (int i = 0; i < 3; i++) {
+                    log.append(WriteAheadLog.Operation.DELETE_PATIENT, "PAT" + i);
+                }
+                System.out.println("  Compaction trigger fired: " + beforeRearm + " (expected 3), after re-arm: "
+                    + (fired[0] - beforeRearm) + " (expected 1)");
+            }
+            
+            java.nio.file.Files.deleteIfExists(triggerLog);
+            java.nio.file.Files.deleteIfExists(snapshot);
+            java.nio.file.Files.deleteIfExists(wal);
+            java.nio.file.Files.deleteIfExists(dir);
+            System.out.println("  ✓ Write-ahead log working correctly");
+        } catch (Exception e) {
+            System.out.println("  Error: " + e.getMessage());
+        }
+    }
+
+    private static void testSearchIndex() {
+        System.out.println("\n[TEST] Testing trigram search index...");
+        
+        PatientService patientService = new PatientService();
+        String[] names = { "Aarav Sharma", "Priya Patel", "Rohan Sharma", "Ananya Iyer", "Vikram Rao" };
+        for (int i = 0; i < 5_000; i++) {
+            patientService.addPatient(new Patient(String.format("PAT%05d", i), names[i % names.length] + " " + i,
+                20 + i % 60, String.format("98%08d", i), "None"));
+        }
+        Patient renamed = patientService.getPatientById("PAT00002");
+        renamed.setName("Zubin Mehta");
+        patientService.updatePatient(renamed);
+        patientService.deletePatient("PAT00000");
+        
+        boolean consistent = true;
+        for (String keyword : new String[] { "sharma", "PATEL", "zubin", "9800001", "pat00007", "xyz", "Ro" }) {
+            long expected = patientService.getAllPatients().stream().filter(p -> p.matches(keyword)).count();
+            long actual = patientService.searchPatient(keyword).size();
+            System.out.println("  '" + keyword + "': " + actual + " match(es)");
+            consistent &= expected == actual;
+        }
+        System.out.println("  Index matches full scan: " + consistent);
+        System.out.println("  ✓ Trigram search index working correctly");
+    }
+
+    private static void testAutocomplete() {
+        System.out.println("\n[TEST] Testing patient autocomplete...");
+        
+        PatientService patientService = new PatientService();
+        for (int i = 0; i < 2_000; i++) {
+            patientService.addPatient(new Patient(String.format("PAT%05d", i), "Meera Kapoor " + i,
+                30, String.format("97%08d", i), "None"));
+        }
+        // An update makes the patient the most recent match
+        Patient touched = patientService.getPatientById("PAT00042");
+        touched.setContact("9700000042");
+        patientService.updatePatient(touched);
+        
+        List<Patient> byName = patientService.autocomplete("kap", 5);
+        List<Patient> byPhone = patientService.autocomplete("970000004", 3);
+        System.out.println("  'kap' -> " + byName.size() + " suggestion(s), first: " + byName.get(0).getId());
+        System.out.println("  '970000004' -> " + byPhone.stream().map(Patient::getId).toList());
+        System.out.println("  'pat0199' -> " + patientService.autocomplete("pat0199", 10).size() + " suggestion(s)");
+        
+        for (int i = 0; i < 1_990; i++) {
+            patientService.deletePatient(String.format("PAT%05d", i));
+        }
+        System.out.println("  'meera' after deletes -> " + patientService.autocomplete("meera", 10).size()
+            + " suggestion(s)");
+        System.out.println("  ✓ Autocomplete working correctly");
+    }
+
+    private static void testAgeIndex() {
+        System.out.println("\n[TEST] Testing age-range index...");
+        
+        PatientService patientService = new PatientService();
+        for (int i = 0; i < 1_000; i++) {
+            patientService.addPatient(new Patient(String.format("PAT%05d", i), "Age Test " + i,
+                i % 100, "9600000000", "None"));
+        }
+        Patient patient = patientService.getPatientById("PAT00005");
+        patient.setAge(70);
+        patientService.updatePatient(patient);
+        patientService.deletePatient("PAT00006");
+        
+        List<Patient> adults = patientService.searchPatient(18, 64);
+        long expected = patientService.getAllPatients().stream()
+            .filter(p -> p.getAge() >= 18 && p.getAge() <= 64).count();
+        System.out.println("  Patients 18-64: " + adults.size() + " (scan: " + expected + ")");
+        System.out.println("  Count 0-9: " + patientService.countPatients(0, 9));
+        System.out.println("  Count 70-70: " + patientService.countPatients(70, 70));
+        System.out.println("  ✓ Age-range index working correctly");
+    }
+
+    private static void testPagination() {
+        System.out.println("\n[TEST] Testing keyset pagination...");
+        
+        PatientService patientService = new PatientService();
+        for (int i = 0; i < 95; i++) {
+            patientService.addPatient(new Patient(String.format("PAT%05d", i), "Paged " + i, 40, "9500000000", "None"));
+        }
+        
+        Page<Patient> first = patientService.getPatientsPage(null, 50);
+        // Deleting and adding around the cursor must not shift the next page
+        patientService.deletePatient("PAT00010");
+        patientService.addPatient(new Patient("PAT00003A", "Inserted", 40, "9500000000", "None"));
+        Page<Patient> second = patientService.getPatientsPage(first.nextCursor(), 50);
+        
+        System.out.println("  Page 1: " + first.items().size() + " items, next after " + first.nextCursor());
+        System.out.println("  Page 2: " + second.items().size() + " items, starts at "
+            + second.items().get(0).getId() + ", has next: " + second.hasNext());
+        System.out.println("  Streamed count (age 40): "
+            + patientService.streamPatients().filter(p -> p.getAge() == 40).count());
+        System.out.println("  ✓ Pagination working correctly");
+    }
+
+    private static void testDataGenerator() {
+        System.out.println("\n[TEST] Testing synthetic data generator...");
+        
+        DataGenerator generator = new DataGenerator(42L, 20, 500, 5_000);
+        List<Appointment> first = new java.util.ArrayList<>();
+        List<Appointment> second = new java.util.ArrayList<>();
+        generator.generate(d -> { }, p -> { }, first::add, b -> { });
+        generator.generate(d -> { }, p -> { }, second::add, b -> { });
+        boolean deterministic = first.size() == second.size();
+        for (int i = 0; deterministic && i < first.size(); i++) {
+            deterministic = first.get(i).getDoctorId().equals(second.get(i).getDoctorId())
+                && first.get(i).getAppointmentTime().equals(second.get(i).getAppointmentTime());
+        }
+        
+        // Loading through the services runs the conflict check on every appointment
+        DoctorService doctorService = new DoctorService();
+        PatientService patientService = new PatientService();
+        AppointmentService appointmentService = new AppointmentService();
+        BillService billService = new BillService();
+        long records = new DataLoadService(doctorService, patientService, appointmentService, billService)
+            .loadGenerated(generator);
+        System.out.println("  Same seed, same appointments: " + deterministic);
+        System.out.println("  Records: " + records + " (doctors " + doctorService.getDoctorCount()
+            + ", patients " + patientService.getPatientCount()
+            + ", appointments " + appointmentService.getAppointmentCount()
+            + ", bills " + billService.getBillCount() + ")");
+        
+        // A second load would reuse the same IDs, so it is refused up front
+        try {
+            new DataLoadService(doctorService, patientService, appointmentService, billService)
+                .loadGenerated(generator);
+            System.out.println("  Error: generated data loaded over existing data");
+        } catch (IllegalStateException e) {
+            System.out.println("  Load into non-empty services rejected: " + e.getMessage());
+        }
+        System.out.println("  ✓ Data generator working correctly");
+    }
+
+    private static void testIdLeasing() {
+        System.out.println("\n[TEST] Testing leased ID blocks...");
+        
+        int threads = 8;
+        int perThread = 5_000;
+        Set<String> ids = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(IdGenerator.newBillId());
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("  Unique IDs from " + threads + " threads: " + ids.size() + " / " + (threads * perThread));
+        
+        // Loaded data moves the counters, so the next ID cannot collide with it
+        try {
+            java.nio.file.Path patientsFile = java.nio.file.Files.createTempFile("meditrack-patients", ".csv");
+            java.nio.file.Files.write(patientsFile, List.of(
+                new Patient("PAT9000000", "Loaded", 40, "9400000000", "None").toCSV()));
+            new DataLoadService(new DoctorService(), new PatientService(), new AppointmentService(),
+                new BillService()).loadFromCSV(null, patientsFile.toString(), null, null);
+            java.nio.file.Files.delete(patientsFile);
+        } catch (java.io.IOException e) {
+            System.out.println("  Error: " + e.getMessage());
+        }
+        System.out.println("  Next patient ID after loading PAT9000000: " + IdGenerator.newPatientId());
+        System.out.println("  Numeric fast path: " + IdGenerator.getInstance().nextNumber(IdType.APPOINTMENT));
+        
+        // An ID requested after advancePast returns must be above its floor, even mid-lease
+        java.util.concurrent.atomic.AtomicLong floor = new java.util.concurrent.atomic.AtomicLong(
+            IdGenerator.getInstance().reserve(IdType.BILL, 1));
+        java.util.concurrent.atomic.AtomicLong belowFloor = new java.util.concurrent.atomic.AtomicLong();
+        java.util.concurrent.atomic.AtomicBoolean advancing = new java.util.concurrent.atomic.AtomicBoolean(true);
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                while (advancing.get()) {
+                    long published = floor.get();
+                    if (IdGenerator.getInstance().nextNumber(IdType.BILL) <= published) {
+                        belowFloor.incrementAndGet();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (int i = 0; i < 2_000; i++) {
+            long next = floor.get() + Constants.ID_BLOCK_SIZE * 4L;
+            IdGenerator.getInstance().advancePast(IdType.BILL, next);
+            floor.set(next);
+        }
+        advancing.set(false);
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("  IDs below an advanced floor: " + belowFloor.get() + " (expected 0)");
+        System.out.println("  ✓ ID leasing working correctly");
+    }
+
+    private static void testEntityIds() {
+        System.out.println("\n[TEST] Testing packed entity IDs...");
+        
+        EntityId canonical = EntityId.of("APT3042");
+        EntityId registered = EntityId.of("PAT007");
+        System.out.println("  APT3042 -> " + Long.toHexString(canonical.value()) + " -> " + canonical
+            + " (" + canonical.type() + " " + canonical.number() + ")");
+        System.out.println("  PAT007 -> " + Long.toHexString(registered.value()) + " -> " + registered
+            + " (registered: " + (registered.type() == null) + ")");
+        System.out.println("  Unknown ID looked up without registering: "
+            + (EntityId.lookup("D-does-not-exist") == EntityId.NONE));
+        
+        Appointment appointment = new Appointment("APT3042", "PAT007", "DOC1001",
+            LocalDateTime.now(), AppointmentStatus.PENDING);
+        System.out.println("  Foreign keys round trip: " + appointment.getPatientId() + ", " + appointment.getDoctorId());
+        Bill typo = new Bill("BILL4042", "APT-typo", BillType.CONSULTATION, 500.0, 0.0);
+        System.out.println("  Unknown reference kept as text, not registered: " + typo.getAppointmentId() + " "
+            + (EntityId.lookup("APT-typo") == EntityId.NONE) + ", valid: " + typo.isValid());
+        
+        // Two different unknown doctors at the same time: neither booking blocks the other
+        AppointmentService appointmentService = new AppointmentService();
+        LocalDateTime slot = LocalDateTime.now().plusDays(3).withHour(10).withMinute(0);
+        try {
+            appointmentService.scheduleAppointment(new Appointment("APT3043", "legacyP1", "legacyD1",
+                slot, AppointmentStatus.SCHEDULED));
+            appointmentService.scheduleAppointment(new Appointment("APT3044", "legacyP2", "legacyD2",
+                slot, AppointmentStatus.SCHEDULED));
+            System.out.println("  Unknown doctors booked at the same time: "
+                + appointmentService.getAppointmentCount() + " (expected 2)");
+        } catch (AppointmentConflictException e) {
+            System.out.println("  ✗ Unexpected: " + e.getMessage());
+        }
+        System.out.println("  Unknown patient has no appointments: "
+            + appointmentService.getAppointmentsByPatient("nobody").isEmpty()
+            + ", unknown doctor free: " + appointmentService.isSlotAvailable("legacyD3", slot)
+            + ", per doctor: " + appointmentService.getAppointmentsPerDoctor());
+        System.out.println("  ✓ Packed IDs working correctly");
+    }
+
+    private static void testLongHashDataStore() {
+        System.out.println("\n[TEST] Testing open-addressing DataStore...");
+        
+        DataStore<Patient> expected = new ConcurrentDataStore<>();
+        DataStore<Patient> actual = new LongHashDataStore<>();
+        for (int i = 0; i < 100_000; i++) {
+            Patient patient = new Patient("PAT" + (900_000 + i), "Table " + i, 30, "9300000000", "None");
+            expected.add(patient);
+            actual.add(patient);
+        }
+        for (int i = 0; i < 100_000; i += 3) {
+            expected.delete("PAT" + (900_000 + i));
+            actual.delete("PAT" + (900_000 + i));
+        }
+        
+        boolean samePages = true;
+        int pages = 0;
+        String cursor = null;
+        do {
+            Page<Patient> left = expected.page(cursor, 500);
+            Page<Patient> right = actual.page(cursor, 500);
+            samePages &= left.items().equals(right.items()) && java.util.Objects.equals(left.nextCursor(), right.nextCursor());
+            cursor = right.nextCursor();
+            pages++;
+        } while (cursor != null && samePages);
+        System.out.println("  Size: " + actual.size() + " (expected " + expected.size() + ")");
+        System.out.println("  Lookup of deleted/kept: " + actual.getById("PAT900000") + " / "
+            + actual.getById("PAT900001").getName());
+        System.out.println("  " + pages + " pages identical to ConcurrentDataStore: " + samePages);
+        // Full traversals walk the slots in place; short-circuiting ones step through a snapshot
+        long streamed = actual.stream().filter(patient -> patient.getAge() == 30).count();
+        boolean found = actual.stream().anyMatch(patient -> patient.getId().equals("PAT999998"));
+        System.out.println("  Streamed: " + streamed + " (expected " + expected.size() + "), anyMatch: " + found);
+        System.out.println("  ✓ Open-addressing DataStore working correctly");
+    }
+
+    private static void testStatusIndex() {
+        System.out.println("\n[TEST] Testing status partitions and counters...");
+        
+        AppointmentService appointmentService = new AppointmentService();
+        LocalDateTime today = LocalDateTime.now().toLocalDate().atStartOfDay();
+        try {
+            for (int i = 0; i < 40; i++) {
+                // Two days of half-hourly slots, 20 per day
+                LocalDateTime time = today.plusDays(i / 20).plusHours(8).plusMinutes(30L * (i % 20));
+                appointmentService.scheduleAppointment(new Appointment("APT" + (800_000 + i),
+                    "PAT2001", "DOC1001", time, AppointmentStatus.SCHEDULED));
+            }
+            appointmentService.confirmAppointment("APT800000");
+            appointmentService.cancelAppointment("APT800001");
+            appointmentService.completeAppointment("APT800001");
+            Appointment moved = appointmentService.getAppointmentById("APT800002");
+            moved.setStatus(AppointmentStatus.NO_SHOW);
+            appointmentService.updateAppointment(moved);
+        } catch (Exception e) {
+            System.out.println("  ✗ Unexpected: " + e.getMessage());
+        }
+        
+        System.out.println("  Counts: " + appointmentService.getStatusCounts());
+        System.out.println("  Scheduled today: " + appointmentService.getAppointmentsByStatus(
+            AppointmentStatus.SCHEDULED, today, today.plusDays(1)).size() + " (expected 17)");
+        System.out.println("  Completed: " + appointmentService.getAppointmentsByStatus(AppointmentStatus.COMPLETED)
+            .get(0).getId());
+        System.out.println("  ✓ Status partitions working correctly");
+    }
+
+    private static void testMoney() {
+        System.out.println("\n[TEST] Testing fixed-point money...");
+        
+        // 18% of ₹0.25 is 4.5 paise: GST rounds the half away from zero
+        System.out.println("  GST on ₹0.25: " + Money.ofPaise(25).gst(1800) + " (expected ₹0.05)");
+        System.out.println("  GST on -₹0.25: " + Money.ofPaise(-25).gst(1800) + " (expected -₹0.05)");
+        System.out.println("  ₹0.285 in paise: " + Money.toPaise(0.285) + " (expected 29)");
+        
+        Bill bill = new Bill("BILL-MONEY", "APT3001", BillType.CONSULTATION, 333.25, 0);
+        System.out.println("  Bill total: " + bill.getTotal() + " (expected ₹452.24)");
+        System.out.println("  Bill paise: " + bill.getSubtotalPaise() + " + " + bill.getTaxPaise()
+            + " = " + bill.getTotalPaise() + " (expected 38325 + 6899 = 45224)");
+        
+        // New charges must replace the cached totals; 18% of ₹483.25 is again a half paisa
+        bill.setAdditionalCharges(100.0);
+        long subtotal = Money.toPaise(333.25) + Money.toPaise(100.0) + Constants.SERVICE_CHARGE_PAISE;
+        long tax = Money.applyRate(subtotal, Constants.TAX_RATE_BASIS_POINTS, Money.GST_ROUNDING);
+        System.out.println("  After charges: " + bill.getSubtotalPaise() + " + " + bill.getTaxPaise()
+            + " = " + bill.getTotalPaise() + " (expected 48325 + 8699 = 57024)");
+        System.out.println("  Matches paise arithmetic: " + (bill.getSubtotalPaise() == subtotal
+            && bill.getTaxPaise() == tax && bill.getTotalPaise() == subtotal + tax));
+        
+        // A million ten-paise bills: the double sum drifts, the paise sum does not
+        int count = 1_000_000;
+        long[] paise = new long[count];
+        byte[] paid = new byte[count];
+        double doubleSum = 0;
+        for (int i = 0; i < count; i++) {
+            paise[i] = 10;
+            paid[i] = (byte) (i % 2);
+            doubleSum += 0.10;
+        }
+        System.out.println("  Double sum: " + doubleSum);
+        System.out.println("  Paise sum: " + Money.ofPaise(Money.sum(paise, 0, count)));
+        System.out.println("  Paid half: " + Money.ofPaise(Money.sumWhere(paise, paid, (byte) 1, 0, count)));
+        System.out.println("  ✓ Money working correctly");
+    }
+
+    private static void testColumnarAnalytics() {
+        System.out.println("\n[TEST] Testing columnar analytics...");
+        
+        AppointmentService appointmentService = new AppointmentService();
+        BillService billService = new BillService();
+        AnalyticsService analyticsService = new AnalyticsService(appointmentService, billService);
+        LocalDateTime today = LocalDateTime.now().toLocalDate().atStartOfDay();
+        try {
+            for (int i = 0; i < 30; i++) {
+                // Three doctors, ten half-hourly slots each, the first five of every doctor today
+                LocalDateTime time = today.plusDays(i % 10 < 5 ? 0 : 1).plusHours(8).plusMinutes(30L * (i % 10));
+                appointmentService.scheduleAppointment(new Appointment("APT" + (900_000 + i),
+                    "PAT2001", "DOC" + (1001 + i / 10), time, AppointmentStatus.SCHEDULED));
+            }
+            appointmentService.completeAppointment("APT900000");
+            appointmentService.completeAppointment("APT900010");
+            appointmentService.cancelAppointment("APT900011");
+        } catch (Exception e) {
+            System.out.println("  ✗ Unexpected: " + e.getMessage());
+        }
+        
+        System.out.println("  Per doctor matches streams: "
+            + analyticsService.getAppointmentsPerDoctor().equals(appointmentService.getAppointmentsPerDoctor()));
+        System.out.println("  Completed per doctor: "
+            + analyticsService.getAppointmentsPerDoctor(AppointmentStatus.COMPLETED));
+        System.out.println("  Today: " + analyticsService.getStatusCounts(today, today.plusDays(1)));
+        
+        for (int i = 0; i < 10; i++) {
+            billService.addBill(BillFactory.createConsultationBill("APT" + (900_000 + i), 100.0 * (i + 1)));
+        }
+        billService.addBill(BillFactory.createSurgeryBill("APT900020", 5000.0, 2000.0));
+        List<Bill> bills = billService.getAllBills();
+        for (int i = 0; i < bills.size(); i += 2) {
+            billService.processBillPayment(bills.get(i).getBillId());
+        }
+        System.out.println("  Revenue: " + analyticsService.getTotalRevenue() + " (running total ₹"
+            + String.format("%.2f", billService.getTotalRevenue()) + ")");
+        System.out.println("  Pending by type: " + analyticsService.getPendingByType());
+        System.out.println("  Columns consistent: " + billService.verifyAggregates());
+        System.out.println("  ✓ Columnar analytics working correctly");
+    }
+
+    private static void testConcurrentDataStore() {
+        System.out.println("\n[TEST] Testing ConcurrentDataStore (multi-threaded stress)...");
+
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        int perThread = 10_000;
+        DataStore<Patient> store = new ConcurrentDataStore<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> workers = new ArrayList<>(threads);
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    Patient patient = new Patient(IdGenerator.newPatientId(), "Stress", 30, "9000000000", "");
+                    store.add(patient);
+                    // Same key written by every thread: only one insert may win
+                    store.addIfAbsent(new Patient("PAT-SHARED", "Shared", 40, "9000000001", ""));
+                    store.computeIfPresent(patient.getId(), (id, p) -> {
+                        p.setAge(p.getAge() + 1);
+                        return p;
+                    });
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                pool.shutdownNow();
+                throw new IllegalStateException("ConcurrentDataStore stress test timed out");
+            }
+            // Surface any exception a worker died with
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ConcurrentDataStore stress test interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ConcurrentDataStore stress worker failed", e.getCause());
+        }
+
+        int expected = threads * perThread + 1;
+        long lostUpdates = expected - 1 - store.getAll().stream().filter(p -> p.getAge() == 31).count();
+        System.out.println("  Threads: " + threads + ", entities: " + store.size() + " (expected " + expected + ")");
+        System.out.println("  Lost updates: " + lostUpdates);
+        if (store.size() != expected || lostUpdates != 0) {
+            throw new IllegalStateException("ConcurrentDataStore lost writes: " + store.size()
+                + " entities (expected " + expected + "), " + lostUpdates + " lost updates");
+        }
+        System.out.println("  ✓ ConcurrentDataStore working correctly");
+    }
 }
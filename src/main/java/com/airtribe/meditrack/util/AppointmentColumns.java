@@ -0,0 +1,127 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.AppointmentStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Columnar projection of appointments for analytics: one row per appointment,
+ * each attribute in its own primitive array
+ * Aggregates are plain loops over the arrays, with no object or pointer per row.
+ * Doctors are dictionary-encoded to dense ints so grouping by doctor is an array
+ * increment. Rows are handed out by {@link #addRow()} and overwritten in place;
+ * the owner remembers which row belongs to which appointment.
+ * Not thread-safe: the owning service guards it with a read/write lock.
+ */
+public final class AppointmentColumns {
+    public static final long NO_TIME = Long.MIN_VALUE;
+    public static final byte NO_STATUS = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    private int size;
+    private int[] doctor = new int[INITIAL_CAPACITY];
+    private long[] minute = new long[INITIAL_CAPACITY];
+    private byte[] status = new byte[INITIAL_CAPACITY];
+
+    // Doctor key to dense index and back; doctors are never dropped from the dictionary
+    private final Map<Long, Integer> doctorIndexes = new HashMap<>();
+    private long[] doctorKeys = new long[INITIAL_CAPACITY];
+    private int doctorCount;
+
+    /**
+     * Append an empty row and return its number
+     */
+    public int addRow() {
+        if (size == doctor.length) {
+            int capacity = size * 2;
+            doctor = Arrays.copyOf(doctor, capacity);
+            minute = Arrays.copyOf(minute, capacity);
+            status = Arrays.copyOf(status, capacity);
+        }
+        minute[size] = NO_TIME;
+        status[size] = NO_STATUS;
+        return size++;
+    }
+
+    public void set(int row, long doctorKey, LocalDateTime time, AppointmentStatus appointmentStatus) {
+        doctor[row] = doctorIndex(doctorKey);
+        minute[row] = time != null ? epochMinute(time) : NO_TIME;
+        status[row] = appointmentStatus != null ? (byte) appointmentStatus.ordinal() : NO_STATUS;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int doctorCount() {
+        return doctorCount;
+    }
+
+    public long doctorKey(int doctorIndex) {
+        return doctorKeys[doctorIndex];
+    }
+
+    /**
+     * Rows per doctor, indexed by dense doctor index
+     */
+    public int[] countByDoctor() {
+        int[] counts = new int[doctorCount];
+        for (int i = 0; i < size; i++) {
+            counts[doctor[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Rows per doctor with the given status, indexed by dense doctor index
+     */
+    public int[] countByDoctor(AppointmentStatus appointmentStatus) {
+        byte wanted = (byte) appointmentStatus.ordinal();
+        int[] counts = new int[doctorCount];
+        for (int i = 0; i < size; i++) {
+            counts[doctor[i]] += status[i] == wanted ? 1 : 0;
+        }
+        return counts;
+    }
+
+    /**
+     * Rows per status with a time in [from, to), indexed by status ordinal
+     */
+    public int[] countByStatus(LocalDateTime from, LocalDateTime to) {
+        long fromMinute = epochMinute(from);
+        long toMinute = epochMinute(to);
+        // Slot 0 collects rows without a status
+        int[] counts = new int[STATUSES.length + 1];
+        for (int i = 0; i < size; i++) {
+            long m = minute[i];
+            counts[status[i] + 1] += m >= fromMinute && m < toMinute ? 1 : 0;
+        }
+        return Arrays.copyOfRange(counts, 1, counts.length);
+    }
+
+    /**
+     * Minutes since 1970-01-01T00:00, reading the local time as if it were UTC
+     */
+    public static long epochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private int doctorIndex(long doctorKey) {
+        Integer index = doctorIndexes.get(doctorKey);
+        if (index != null) {
+            return index;
+        }
+        if (doctorCount == doctorKeys.length) {
+            doctorKeys = Arrays.copyOf(doctorKeys, doctorCount * 2);
+        }
+        doctorKeys[doctorCount] = doctorKey;
+        doctorIndexes.put(doctorKey, doctorCount);
+        return doctorCount++;
+    }
+}
@@ -0,0 +1,82 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.BillType;
+
+import java.util.Arrays;
+
+/**
+ * Columnar projection of bills for analytics: total in paise, bill type and
+ * payment state, each in its own primitive array
+ * Rows are handed out by {@link #addRow()} and overwritten in place; the owner
+ * remembers which row belongs to which bill.
+ * Not thread-safe: the owning service guards it with a read/write lock.
+ */
+public final class BillColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int TYPES = BillType.values().length;
+    private static final byte PAID = 1;
+    private static final byte UNPAID = 0;
+
+    private int size;
+    private long[] amount = new long[INITIAL_CAPACITY];
+    private byte[] type = new byte[INITIAL_CAPACITY];
+    private byte[] paid = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Append an empty row (zero, unpaid, first type) and return its number
+     */
+    public int addRow() {
+        if (size == amount.length) {
+            int capacity = size * 2;
+            amount = Arrays.copyOf(amount, capacity);
+            type = Arrays.copyOf(type, capacity);
+            paid = Arrays.copyOf(paid, capacity);
+        }
+        amount[size] = 0;
+        type[size] = 0;
+        paid[size] = UNPAID;
+        return size++;
+    }
+
+    public void set(int row, long totalPaise, BillType billType, boolean isPaid) {
+        amount[row] = totalPaise;
+        type[row] = (byte) billType.ordinal();
+        paid[row] = isPaid ? PAID : UNPAID;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Total in paise of the paid (or unpaid) bills
+     */
+    public long sum(boolean isPaid) {
+        return Money.sumWhere(amount, paid, isPaid ? PAID : UNPAID, 0, size);
+    }
+
+    /**
+     * Totals in paise of the paid (or unpaid) bills, indexed by bill type ordinal
+     */
+    public long[] sumByType(boolean isPaid) {
+        byte wanted = isPaid ? PAID : UNPAID;
+        long[] sums = new long[TYPES];
+        for (int i = 0; i < size; i++) {
+            long match = paid[i] == wanted ? -1L : 0L;
+            sums[type[i]] += amount[i] & match;
+        }
+        return sums;
+    }
+
+    /**
+     * Number of paid (or unpaid) bills, indexed by bill type ordinal
+     */
+    public int[] countByType(boolean isPaid) {
+        byte wanted = isPaid ? PAID : UNPAID;
+        int[] counts = new int[TYPES];
+        for (int i = 0; i < size; i++) {
+            counts[type[i]] += paid[i] == wanted ? 1 : 0;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,183 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.MedicalEntity;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes entities written by {@link BinaryEncoder}
+ * With a channel the buffer is refilled on demand; otherwise it reads a fixed buffer.
+ * Every entity ends with its creation and last-update times. Snapshots older than
+ * version 2 have none ({@link #setTimestamped}); a fixed buffer (one log record) has
+ * them exactly when bytes remain after the entity, so older log records still read.
+ */
+public class BinaryDecoder {
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final BillType[] BILL_TYPES = BillType.values();
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private byte[] scratch = new byte[256];
+    private boolean timestamped = true;
+
+    public BinaryDecoder(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.flip(); // start empty
+    }
+
+    public BinaryDecoder(ByteBuffer buffer) {
+        this.channel = null;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Whether entities read from the channel carry timestamps (false for version 1 snapshots)
+     */
+    public void setTimestamped(boolean timestamped) {
+        this.timestamped = timestamped;
+    }
+
+    public byte getByte() throws IOException {
+        ensure(Byte.BYTES);
+        return buffer.get();
+    }
+
+    public short getShort() throws IOException {
+        ensure(Short.BYTES);
+        return buffer.getShort();
+    }
+
+    public int getInt() throws IOException {
+        ensure(Integer.BYTES);
+        return buffer.getInt();
+    }
+
+    public long getLong() throws IOException {
+        ensure(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    public double getDouble() throws IOException {
+        ensure(Double.BYTES);
+        return buffer.getDouble();
+    }
+
+    public String getString() throws IOException {
+        int length = getInt();
+        if (length == SnapshotFormat.NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt string length: " + length);
+        }
+        ensure(length);
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public LocalDateTime getDateTime() throws IOException {
+        long epochSecond = getLong();
+        int nano = getInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    public Doctor getDoctor() throws IOException {
+        String id = getString();
+        String name = getString();
+        int age = getInt();
+        String contact = getString();
+        Specialization specialization = SPECIALIZATIONS[getByte()];
+        double fee = getDouble();
+        return timestamps(new Doctor(id, name, age, contact, specialization, fee));
+    }
+
+    public Patient getPatient() throws IOException {
+        Patient patient = new Patient(getString(), getString(), getInt(), getString(), getString());
+        int allergyCount = getInt();
+        if (allergyCount > 0) {
+            List<String> allergies = new ArrayList<>(allergyCount);
+            for (int i = 0; i < allergyCount; i++) {
+                allergies.add(getString());
+            }
+            patient.setAllergies(allergies);
+        }
+        return timestamps(patient);
+    }
+
+    public Appointment getAppointment() throws IOException {
+        String id = getString();
+        String patientId = getString();
+        String doctorId = getString();
+        LocalDateTime time = getDateTime();
+        AppointmentStatus status = STATUSES[getByte()];
+        Appointment appointment = new Appointment(id, patientId, doctorId, time, status);
+        int noteCount = getInt();
+        for (int i = 0; i < noteCount; i++) {
+            appointment.addNote(getString(), getString());
+        }
+        return timestamps(appointment);
+    }
+
+    public Bill getBill() throws IOException {
+        String id = getString();
+        String appointmentId = getString();
+        BillType type = BILL_TYPES[getByte()];
+        double fee = getDouble();
+        double additional = getDouble();
+        Bill bill = new Bill(id, appointmentId, type, fee, additional);
+        bill.setPaid(getByte() == 1);
+        return timestamps(bill);
+    }
+
+    // Applied last, after the setters above have marked the entity updated
+    private <T extends MedicalEntity> T timestamps(T entity) throws IOException {
+        if (channel != null ? timestamped : buffer.hasRemaining()) {
+            LocalDateTime createdAt = getDateTime();
+            entity.restoreTimestamps(createdAt, getDateTime());
+        }
+        return entity;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (channel == null) {
+            throw new EOFException("Unexpected end of record");
+        }
+        if (buffer.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(bytes, buffer.capacity() * 2));
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                throw new EOFException("Unexpected end of snapshot");
+            }
+        }
+        buffer.flip();
+    }
+}
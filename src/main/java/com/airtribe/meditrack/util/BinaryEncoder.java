@@ -0,0 +1,180 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.MedicalEntity;
+import com.airtribe.meditrack.entity.Patient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes entities into the binary snapshot layout (see {@link SnapshotFormat})
+ * With a channel the buffer is drained to it whenever it fills up; without one
+ * the buffer grows, which is how single write-ahead log records are built.
+ */
+public class BinaryEncoder {
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+
+    public BinaryEncoder(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public BinaryEncoder(int initialSize) {
+        this.channel = null;
+        this.buffer = ByteBuffer.allocate(initialSize);
+    }
+
+    public void putByte(byte value) {
+        ensure(Byte.BYTES);
+        buffer.put(value);
+    }
+
+    public void putShort(short value) {
+        ensure(Short.BYTES);
+        buffer.putShort(value);
+    }
+
+    public void putInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void putLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void putDouble(double value) {
+        ensure(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    public void putString(String value) {
+        if (value == null) {
+            putInt(SnapshotFormat.NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    public void putDateTime(LocalDateTime value) {
+        putLong(value.toEpochSecond(ZoneOffset.UTC));
+        putInt(value.getNano());
+    }
+
+    public void putDoctor(Doctor doctor) {
+        putString(doctor.getId());
+        putString(doctor.getName());
+        putInt(doctor.getAge());
+        putString(doctor.getContact());
+        putByte((byte) doctor.getSpecialization().ordinal());
+        putDouble(doctor.getConsultationFee());
+        putTimestamps(doctor);
+    }
+
+    public void putPatient(Patient patient) {
+        putString(patient.getId());
+        putString(patient.getName());
+        putInt(patient.getAge());
+        putString(patient.getContact());
+        putString(patient.getMedicalHistory());
+        List<String> allergies = patient.getAllergies();
+        putInt(allergies.size());
+        for (String allergy : allergies) {
+            putString(allergy);
+        }
+        putTimestamps(patient);
+    }
+
+    public void putAppointment(Appointment appointment) {
+        putString(appointment.getId());
+        putString(appointment.getPatientId());
+        putString(appointment.getDoctorId());
+        putDateTime(appointment.getAppointmentTime());
+        putByte((byte) appointment.getStatus().ordinal());
+        Map<String, String> notes = appointment.getNotes();
+        putInt(notes.size());
+        for (Map.Entry<String, String> note : notes.entrySet()) {
+            putString(note.getKey());
+            putString(note.getValue());
+        }
+        putTimestamps(appointment);
+    }
+
+    public void putBill(Bill bill) {
+        putString(bill.getId());
+        putString(bill.getAppointmentId());
+        putByte((byte) bill.getBillType().ordinal());
+        putDouble(bill.getConsultationFee());
+        putDouble(bill.getAdditionalCharges());
+        putByte((byte) (bill.isPaid() ? 1 : 0));
+        putTimestamps(bill);
+    }
+
+    // Last, so readers of older layouts know where they stop
+    private void putTimestamps(MedicalEntity entity) {
+        putDateTime(entity.getCreatedAt());
+        putDateTime(entity.getUpdatedAt());
+    }
+
+    /**
+     * Bytes encoded so far, flipped for reading (buffer-only mode)
+     */
+    public ByteBuffer encoded() {
+        ByteBuffer view = buffer.duplicate();
+        view.flip();
+        return view;
+    }
+
+    public void reset() {
+        buffer.clear();
+    }
+
+    public void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (channel != null) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+        }
+        // Grow to fit values larger than the buffer (or any value in buffer-only mode)
+        ByteBuffer larger = buffer.isDirect()
+                ? ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + bytes))
+                : ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
@@ -1,41 +1,208 @@
 package com.airtribe.meditrack.util;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * CSV reading/writing following RFC 4180
+ * Fields containing commas, quotes or line breaks are quoted, and embedded
+ * quotes are doubled, so free text such as medical history survives a round trip.
+ */
 public class CSVUtil {
-    
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Stream records to the consumer as they are parsed, without holding the file in memory
+     * @return the number of records read
+     */
+    public static long readCSV(String filePath, Consumer<String[]> consumer) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8)) {
+            return parse(reader, consumer);
+        }
+    }
+
     public static List<String[]> readCSV(String filePath) throws IOException {
         List<String[]> records = new ArrayList<>();
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] values = line.split(",");
-                records.add(values);
+        readCSV(filePath, records::add);
+        return records;
+    }
+
+    /**
+     * Parse a single CSV record
+     */
+    public static String[] parseLine(String line) {
+        List<String[]> records = new ArrayList<>(1);
+        RecordParser parser = new RecordParser(records::add);
+        parser.feed(line.toCharArray(), 0, line.length());
+        parser.finish();
+        return records.isEmpty() ? new String[0] : records.get(0);
+    }
+
+    /**
+     * Format a record as a single CSV line, quoting fields only where required
+     */
+    public static String formatRecord(String[] record) {
+        StringBuilder line = new StringBuilder(record.length * 16);
+        for (int i = 0; i < record.length; i++) {
+            if (i > 0) {
+                line.append(',');
             }
+            appendField(line, record[i]);
         }
-        
-        return records;
+        return line.toString();
     }
 
     public static void writeCSV(String filePath, List<String[]> records) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath))) {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
             for (String[] record : records) {
-                bw.write(String.join(",", record));
+                bw.write(formatRecord(record));
                 bw.newLine();
             }
         }
     }
 
     public static void appendToCSV(String filePath, String[] record) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath, true))) {
-            bw.write(String.join(",", record));
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8, true))) {
+            bw.write(formatRecord(record));
             bw.newLine();
         }
     }
 
+    // Single pass over a reusable char buffer
+    private static long parse(Reader reader, Consumer<String[]> consumer) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        RecordParser parser = new RecordParser(consumer);
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            parser.feed(buffer, 0, read);
+        }
+        return parser.finish();
+    }
+
+    /**
+     * Incremental RFC 4180 parser: characters can be fed in arbitrary pieces and
+     * each completed record is handed to the consumer. The field builder and
+     * field list are reused for every record.
+     */
+    static final class RecordParser {
+        private final Consumer<String[]> consumer;
+        private final StringBuilder field = new StringBuilder(64);
+        private final List<String> fields = new ArrayList<>(16);
+        private boolean inQuotes;
+        private boolean closingQuote;
+        private boolean recordStarted;
+        private boolean skipLineFeed;
+        private long count;
+
+        RecordParser(Consumer<String[]> consumer) {
+            this.consumer = consumer;
+        }
+
+        void feed(char[] chars, int offset, int length) {
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                char c = chars[i];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                if (inQuotes) {
+                    if (c == '"') {
+                        inQuotes = false;
+                        closingQuote = true;
+                    } else {
+                        field.append(c);
+                    }
+                    continue;
+                }
+                if (closingQuote) {
+                    closingQuote = false;
+                    if (c == '"') {
+                        // "" inside a quoted field is an escaped quote
+                        field.append('"');
+                        inQuotes = true;
+                        continue;
+                    }
+                }
+                switch (c) {
+                    case ',':
+                        fields.add(field.toString());
+                        field.setLength(0);
+                        recordStarted = true;
+                        break;
+                    case '\r':
+                        skipLineFeed = true;
+                        endRecord();
+                        break;
+                    case '\n':
+                        endRecord();
+                        break;
+                    case '"':
+                        if (field.length() == 0) {
+                            inQuotes = true;
+                            recordStarted = true;
+                        } else {
+                            // A quote inside an unquoted field is literal
+                            field.append(c);
+                        }
+                        break;
+                    default:
+                        field.append(c);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Flush a trailing record without a line break
+         * @return the number of records parsed
+         */
+        long finish() {
+            endRecord();
+            return count;
+        }
+
+        private void endRecord() {
+            if (recordStarted || field.length() > 0) {
+                fields.add(field.toString());
+                consumer.accept(fields.toArray(new String[0]));
+                count++;
+            }
+            field.setLength(0);
+            fields.clear();
+            recordStarted = false;
+        }
+    }
+
+    private static void appendField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
     private CSVUtil() {
         // Prevent instantiation
     }
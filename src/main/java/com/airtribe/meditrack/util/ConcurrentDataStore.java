@@ -0,0 +1,20 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.MedicalEntity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Thread-safe DataStore backed by a ConcurrentHashMap
+ * Writes to different keys do not block each other, and
+ * addIfAbsent/update/computeIfPresent are atomic per key. Streams, iterators
+ * and pages are weakly consistent rather than fail-fast.
+ * @param <T> the type of entity to store
+ */
+public class ConcurrentDataStore<T extends MedicalEntity> extends DataStore<T> {
+
+    public ConcurrentDataStore() {
+        super(new ConcurrentHashMap<>(), new ConcurrentSkipListSet<>());
+    }
+}
@@ -0,0 +1,342 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillType;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic synthetic data for load testing
+ * The same seed and scale always produce the same records. Doctors are generated
+ * up front (they are few); patients, appointments and bills are streamed to the
+ * consumers one at a time, so the number of appointments is not limited by memory.
+ * Every doctor has a slot cursor that only moves forward through the doctor's
+ * working hours, so generated appointments never overlap.
+ * Usage: DataGenerator (csv | snapshot) appointments [patients] [doctors] [seed]
+ */
+public class DataGenerator {
+    public static final long DEFAULT_SEED = 20240101L;
+
+    // Generated history starts here; appointments before AS_OF are in the past
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime AS_OF = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final long AS_OF_MINUTE = toMinute(AS_OF);
+    private static final int SLOT_MINUTES = Constants.APPOINTMENT_SLOT_MINUTES;
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Vivaan", "Aditya", "Vihaan", "Arjun", "Sai", "Reyansh", "Ayaan", "Krishna", "Ishaan",
+            "Ananya", "Diya", "Priya", "Saanvi", "Aadhya", "Kavya", "Meera", "Riya", "Isha", "Neha",
+            "Rohan", "Kabir", "Dev", "Nikhil", "Rahul", "Pooja", "Sneha", "Lakshmi", "Divya", "Tara"
+    };
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Verma", "Patel", "Iyer", "Rao", "Reddy", "Nair", "Menon", "Gupta", "Singh",
+            "Kapoor", "Mehta", "Joshi", "Kulkarni", "Das", "Bose", "Chatterjee", "Pillai", "Shetty", "Khan"
+    };
+    private static final String[] HISTORIES = {
+            "None", "Hypertension", "Type 2 diabetes", "Asthma", "Migraine", "Hypothyroidism",
+            "Arthritis", "Seasonal allergies", "High cholesterol", "Anxiety"
+    };
+    private static final String[] ALLERGIES = {
+            "Penicillin", "Peanuts", "Dust", "Pollen", "Latex", "Aspirin", "Shellfish", "Sulfa drugs"
+    };
+
+    /**
+     * When a specialization sees patients
+     * @param firstHour first slot of the day
+     * @param lastHour no slot starts at or after this hour
+     * @param meanGapSlots average number of free slots between two appointments
+     * @param weekends whether the doctor also works on Saturday and Sunday
+     */
+    private record TimeProfile(int firstHour, int lastHour, double meanGapSlots, boolean weekends) {
+    }
+
+    private static final Map<Specialization, TimeProfile> PROFILES = new EnumMap<>(Specialization.class);
+
+    static {
+        PROFILES.put(Specialization.GENERAL_PHYSICIAN, new TimeProfile(8, 20, 0.3, true));
+        PROFILES.put(Specialization.CARDIOLOGIST, new TimeProfile(9, 17, 1.0, false));
+        PROFILES.put(Specialization.DERMATOLOGIST, new TimeProfile(10, 18, 0.8, false));
+        PROFILES.put(Specialization.ORTHOPEDIC, new TimeProfile(8, 16, 2.0, false));
+        PROFILES.put(Specialization.OPHTHALMOLOGIST, new TimeProfile(9, 17, 0.8, false));
+        PROFILES.put(Specialization.PEDIATRICIAN, new TimeProfile(8, 19, 0.3, true));
+        PROFILES.put(Specialization.NEUROLOGIST, new TimeProfile(9, 16, 1.5, false));
+        PROFILES.put(Specialization.PSYCHIATRIST, new TimeProfile(10, 19, 1.0, false));
+        PROFILES.put(Specialization.DENTIST, new TimeProfile(9, 19, 0.5, true));
+        PROFILES.put(Specialization.ENT_SPECIALIST, new TimeProfile(9, 17, 1.0, false));
+    }
+
+    // Relative demand per specialization, in the order of Specialization.values()
+    private static final int[] SPECIALIZATION_WEIGHTS = { 30, 8, 8, 8, 6, 12, 4, 5, 12, 7 };
+
+    private final long seed;
+    private final int doctorCount;
+    private final long patientCount;
+    private final long appointmentCount;
+
+    public DataGenerator(long seed, int doctorCount, long patientCount, long appointmentCount) {
+        if (doctorCount <= 0 || patientCount <= 0 || appointmentCount < 0) {
+            throw new IllegalArgumentException("Need at least one doctor and one patient");
+        }
+        this.seed = seed;
+        this.doctorCount = doctorCount;
+        this.patientCount = patientCount;
+        this.appointmentCount = appointmentCount;
+    }
+
+    /**
+     * Default proportions for a given number of appointments
+     */
+    public static DataGenerator forAppointments(long appointments, long seed) {
+        long patients = Math.max(1, appointments / 4);
+        int doctors = (int) Math.max(10, Math.min(Integer.MAX_VALUE, appointments / 2_000));
+        return new DataGenerator(seed, doctors, patients, appointments);
+    }
+
+    /**
+     * Stream every generated record to the consumers: doctors, then patients, then
+     * appointments each followed by its bill (completed appointments only)
+     * @return the number of records generated
+     */
+    public long generate(Consumer<Doctor> doctors, Consumer<Patient> patients,
+                         Consumer<Appointment> appointments, Consumer<Bill> bills) {
+        // Independent streams, so changing one count does not reshuffle the other entities
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom doctorRandom = root.split();
+        SplittableRandom patientRandom = root.split();
+        SplittableRandom appointmentRandom = root.split();
+
+        Doctor[] generatedDoctors = new Doctor[doctorCount];
+        long[] slotCursors = new long[doctorCount];
+        long startMinute = toMinute(START);
+        for (int i = 0; i < doctorCount; i++) {
+            generatedDoctors[i] = doctor(i, doctorRandom);
+            slotCursors[i] = startMinute;
+            doctors.accept(generatedDoctors[i]);
+        }
+        long records = doctorCount;
+
+        for (long i = 0; i < patientCount; i++) {
+            patients.accept(patient(i, patientRandom));
+            records++;
+        }
+
+        for (long i = 0; i < appointmentCount; i++) {
+            int d = appointmentRandom.nextInt(doctorCount);
+            Doctor doctor = generatedDoctors[d];
+            TimeProfile profile = PROFILES.get(doctor.getSpecialization());
+            slotCursors[d] = nextSlot(slotCursors[d], profile, appointmentRandom);
+
+            long minute = slotCursors[d];
+            slotCursors[d] += SLOT_MINUTES;
+            String patientId = "PAT" + (2001 + appointmentRandom.nextLong(patientCount));
+            Appointment appointment = new Appointment("APT" + (3001 + i), patientId, doctor.getId(),
+                    toDateTime(minute), status(minute, appointmentRandom));
+            appointments.accept(appointment);
+            records++;
+
+            if (appointment.getStatus() == AppointmentStatus.COMPLETED) {
+                bills.accept(bill(i, appointment, doctor, appointmentRandom));
+                records++;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Generate straight into the four CSV files
+     */
+    public long generateCSV(String doctorsFile, String patientsFile, String appointmentsFile,
+                            String billsFile) throws IOException {
+        try (BufferedWriter doctors = Files.newBufferedWriter(Path.of(doctorsFile), StandardCharsets.UTF_8);
+             BufferedWriter patients = Files.newBufferedWriter(Path.of(patientsFile), StandardCharsets.UTF_8);
+             BufferedWriter appointments = Files.newBufferedWriter(Path.of(appointmentsFile), StandardCharsets.UTF_8);
+             BufferedWriter bills = Files.newBufferedWriter(Path.of(billsFile), StandardCharsets.UTF_8)) {
+            return generate(
+                    doctor -> writeLine(doctors, doctor.toCSVRecord()),
+                    patient -> writeLine(patients, patient.toCSVRecord()),
+                    appointment -> writeLine(appointments, appointment.toCSVRecord()),
+                    bill -> writeLine(bills, bill.toCSVRecord()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Generate straight into a binary snapshot
+     */
+    public long generateSnapshot(Path snapshot) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(snapshot)) {
+            long records = generate(writer::writeDoctor, writer::writePatient,
+                    writer::writeAppointment, writer::writeBill);
+            writer.commit();
+            return records;
+        }
+    }
+
+    private static Doctor doctor(int i, SplittableRandom random) {
+        Specialization specialization = pickSpecialization(random);
+        double fee = 300 + 100 * random.nextInt(specialization == Specialization.GENERAL_PHYSICIAN ? 6 : 20);
+        return new Doctor("DOC" + (1001 + i), "Dr. " + name(random), 28 + random.nextInt(40),
+                contact(random), specialization, fee);
+    }
+
+    private static Patient patient(long i, SplittableRandom random) {
+        // Skewed towards adults, with a tail of children and elderly patients
+        int age = Math.min(Constants.MAX_AGE, (int) Math.abs(38 + random.nextGaussian() * 20));
+        Patient patient = new Patient("PAT" + (2001 + i), name(random), age, contact(random),
+                HISTORIES[random.nextInt(HISTORIES.length)]);
+        int allergies = random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(2);
+        for (int a = 0; a < allergies; a++) {
+            patient.addAllergy(ALLERGIES[random.nextInt(ALLERGIES.length)]);
+        }
+        return patient;
+    }
+
+    private static Bill bill(long i, Appointment appointment, Doctor doctor, SplittableRandom random) {
+        BillType type = billType(doctor.getSpecialization(), random);
+        double additional = switch (type) {
+            case SURGERY -> 5_000 + 500 * random.nextInt(40);
+            case DIAGNOSTIC -> 500 + 100 * random.nextInt(30);
+            case PHARMACY -> 100 + 50 * random.nextInt(20);
+            case EMERGENCY -> 2_000 + 250 * random.nextInt(20);
+            default -> 0;
+        };
+        Bill bill = new Bill("BILL" + (4001 + i), appointment.getId(), type,
+                doctor.getConsultationFee(), additional);
+        if (random.nextInt(100) < 85) {
+            bill.setPaid(true);
+        }
+        return bill;
+    }
+
+    // First free slot at or after the cursor, leaving a random gap, within working hours
+    private static long nextSlot(long cursor, TimeProfile profile, SplittableRandom random) {
+        long gap = 0;
+        while (random.nextDouble() < profile.meanGapSlots() / (1 + profile.meanGapSlots())) {
+            gap++;
+        }
+        long minute = cursor + gap * SLOT_MINUTES;
+        while (true) {
+            long day = Math.floorDiv(minute, 24 * 60);
+            long minuteOfDay = minute - day * 24 * 60;
+            DayOfWeek dayOfWeek = toDateTime(day * 24 * 60).getDayOfWeek();
+            boolean weekend = dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+            if ((weekend && !profile.weekends()) || minuteOfDay >= profile.lastHour() * 60L) {
+                minute = (day + 1) * 24 * 60 + profile.firstHour() * 60L;
+            } else if (minuteOfDay < profile.firstHour() * 60L) {
+                minute = day * 24 * 60 + profile.firstHour() * 60L;
+            } else {
+                return minute;
+            }
+        }
+    }
+
+    private static AppointmentStatus status(long minute, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (minute < AS_OF_MINUTE) {
+            return roll < 88 ? AppointmentStatus.COMPLETED
+                    : roll < 95 ? AppointmentStatus.CANCELLED : AppointmentStatus.NO_SHOW;
+        }
+        return roll < 50 ? AppointmentStatus.CONFIRMED
+                : roll < 85 ? AppointmentStatus.SCHEDULED
+                : roll < 95 ? AppointmentStatus.PENDING : AppointmentStatus.CANCELLED;
+    }
+
+    private static BillType billType(Specialization specialization, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 2) {
+            return BillType.EMERGENCY;
+        }
+        if (roll < 12) {
+            return BillType.PHARMACY;
+        }
+        return switch (specialization) {
+            case ORTHOPEDIC -> roll < 40 ? BillType.SURGERY : BillType.CONSULTATION;
+            case CARDIOLOGIST, NEUROLOGIST, ENT_SPECIALIST ->
+                    roll < 50 ? BillType.DIAGNOSTIC : BillType.CONSULTATION;
+            case OPHTHALMOLOGIST, DENTIST -> roll < 20 ? BillType.SURGERY : BillType.CONSULTATION;
+            default -> BillType.CONSULTATION;
+        };
+    }
+
+    private static Specialization pickSpecialization(SplittableRandom random) {
+        int total = 0;
+        for (int weight : SPECIALIZATION_WEIGHTS) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        Specialization[] specializations = Specialization.values();
+        for (int i = 0; i < specializations.length; i++) {
+            roll -= SPECIALIZATION_WEIGHTS[i];
+            if (roll < 0) {
+                return specializations[i];
+            }
+        }
+        return Specialization.GENERAL_PHYSICIAN;
+    }
+
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String contact(SplittableRandom random) {
+        return String.valueOf(6_000_000_000L + random.nextLong(4_000_000_000L));
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime toDateTime(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeLine(BufferedWriter writer, String[] record) {
+        try {
+            writer.write(CSVUtil.formatRecord(record));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("csv") || args[0].equals("snapshot"))) {
+            System.out.println("Usage: DataGenerator (csv | snapshot) appointments [patients] [doctors] [seed]");
+            return;
+        }
+        long appointments = Long.parseLong(args[1]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+        DataGenerator defaults = forAppointments(appointments, seed);
+        long patients = args.length > 2 ? Long.parseLong(args[2]) : defaults.patientCount;
+        int doctors = args.length > 3 ? Integer.parseInt(args[3]) : defaults.doctorCount;
+        DataGenerator generator = new DataGenerator(seed, doctors, patients, appointments);
+
+        Files.createDirectories(Path.of(Constants.DATA_DIR));
+        long start = System.nanoTime();
+        long records = args[0].equals("csv")
+                ? generator.generateCSV(Constants.DOCTORS_FILE, Constants.PATIENTS_FILE,
+                        Constants.APPOINTMENTS_FILE, Constants.BILLS_FILE)
+                : generator.generateSnapshot(Path.of(Constants.SNAPSHOT_FILE));
+        System.out.println("✓ Generated " + records + " records in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
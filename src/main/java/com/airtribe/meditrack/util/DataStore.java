@@ -1,67 +1,131 @@
 package com.airtribe.meditrack.util;
 
-import java.util.ArrayList;
+import com.airtribe.meditrack.entity.MedicalEntity;
+
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 /**
  * Generic DataStore for managing entities
+ * Entities are keyed by {@link MedicalEntity#getKey()}, the compact long form of
+ * their ID, so lookups hash a long instead of a string. IDs are only converted at
+ * the API edge. By default a sorted set of keys is kept next to the map for stable
+ * keyset pagination; pages are ordered by key (ID type, then number).
  * @param <T> the type of entity to store
  */
-public class DataStore<T> {
-    private Map<String, T> dataMap;
+public class DataStore<T extends MedicalEntity> implements Iterable<T> {
+    private final EntityTable<T> table;
 
     public DataStore() {
-        this.dataMap = new HashMap<>();
+        this(new HashMap<>(), new TreeSet<>());
+    }
+
+    /**
+     * Backing map and key set are supplied by subclasses (e.g. concurrent ones)
+     */
+    protected DataStore(Map<Long, T> dataMap, NavigableSet<Long> keys) {
+        this(new MapEntityTable<>(dataMap, keys));
+    }
+
+    DataStore(EntityTable<T> table) {
+        this.table = table;
     }
 
     public void add(T entity) {
-        String id = extractId(entity);
-        dataMap.put(id, entity);
+        table.put(extractKey(entity), entity);
+    }
+
+    /**
+     * Add the entity only if no entity with the same ID is stored
+     * @return true if the entity was added
+     */
+    public boolean addIfAbsent(T entity) {
+        return table.putIfAbsent(extractKey(entity), entity);
     }
 
     public T getById(String id) {
-        return dataMap.get(id);
+        return getByKey(EntityId.lookup(id));
+    }
+
+    public T getByKey(long key) {
+        return table.get(key);
     }
 
     public List<T> getAll() {
-        return new ArrayList<>(dataMap.values());
+        return table.values();
     }
 
-    public void update(T entity) {
-        String id = extractId(entity);
-        if (dataMap.containsKey(id)) {
-            dataMap.put(id, entity);
+    /**
+     * Lazy stream over the values, without copying them into a list
+     * Pipelines must not write to this store: the open-addressing table walks its
+     * slots under a read lock while the stream runs.
+     */
+    public Stream<T> stream() {
+        return table.stream();
+    }
+
+    /**
+     * Read-only iterator over the values
+     * Safe to write to the store while iterating; the open-addressing table hands
+     * out a snapshot for this.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return table.iterator();
+    }
+
+    /**
+     * Up to limit entities in ID order, starting after the given cursor
+     * Pages stay stable while entities are added or removed elsewhere in the order.
+     * @param afterId the cursor of the previous page, or null for the first page
+     */
+    public Page<T> page(String afterId, int limit) {
+        long afterKey = afterId == null ? EntityId.NONE : EntityId.lookup(afterId);
+        List<T> items = table.after(afterKey, limit);
+        String next = null;
+        if (!items.isEmpty()) {
+            T last = items.get(items.size() - 1);
+            next = table.hasAfter(last.getKey()) ? last.getId() : null;
         }
+        return new Page<>(items, next);
+    }
+
+    public void update(T entity) {
+        table.replace(extractKey(entity), entity);
+    }
+
+    /**
+     * Recompute the entity stored under the given ID
+     * Returning null from the function removes the entity.
+     * @return the new value, or null if absent
+     */
+    public T computeIfPresent(String id, BiFunction<String, T, T> remappingFunction) {
+        return table.computeIfPresent(EntityId.lookup(id), entity -> remappingFunction.apply(id, entity));
     }
 
     public void delete(String id) {
-        dataMap.remove(id);
+        table.remove(EntityId.lookup(id));
     }
 
     public boolean exists(String id) {
-        return dataMap.containsKey(id);
+        return table.containsKey(EntityId.lookup(id));
     }
 
     public int size() {
-        return dataMap.size();
-    }
-
-    private String extractId(T entity) {
-        try {
-            return (String) entity.getClass().getMethod("getId").invoke(entity);
-        } catch (Exception e) {
-            // Fallback for entities without getId method
-            try {
-                return (String) entity.getClass().getMethod("getAppointmentId").invoke(entity);
-            } catch (Exception ex) {
-                try {
-                    return (String) entity.getClass().getMethod("getBillId").invoke(entity);
-                } catch (Exception exc) {
-                    throw new RuntimeException("Unable to extract ID from entity", exc);
-                }
-            }
+        return table.size();
+    }
+
+    private long extractKey(T entity) {
+        long key = entity.getKey();
+        if (key == EntityId.NONE) {
+            throw new IllegalArgumentException("Unable to extract ID from " + entity.getEntityType());
         }
+        return key;
     }
 }
@@ -0,0 +1,117 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compact form of an entity ID: an {@link IdType} tag and a sequence number packed into one long
+ * The tag takes the top byte and the number the low 56 bits, so an ID such as
+ * "APT3042" is held and hashed as a primitive and formatted back only at the
+ * edges (API, CSV, snapshots). IDs that cannot be rebuilt from tag and number,
+ * e.g. "D001" or "PAT007" (leading zero), are given a number in a process-wide
+ * registry instead; the registry only grows, so a key never changes meaning.
+ * Only an entity's own ID is registered (by {@link #encode}, from MedicalEntity);
+ * references to other entities and all reads use {@link #lookup}, so IDs typed
+ * or loaded for entities that do not exist never enter the registry.
+ * @param value the packed key
+ */
+public record EntityId(long value) implements Comparable<EntityId> {
+    // Key of a null or empty ID, and the lookup result for an unknown one
+    public static final long NONE = -1;
+
+    private static final int NUMBER_BITS = 56;
+    private static final long NUMBER_MASK = (1L << NUMBER_BITS) - 1;
+    private static final long REGISTERED_TAG = 0x7F;
+
+    private static final Map<String, Long> registered = new ConcurrentHashMap<>();
+    private static final Map<Long, String> registeredIds = new ConcurrentHashMap<>();
+    private static final AtomicLong nextRegistered = new AtomicLong();
+
+    public static EntityId of(String id) {
+        return new EntityId(encode(id));
+    }
+
+    /**
+     * Key of an entity's own ID, registering it if it is not in the canonical format
+     */
+    public static long encode(String id) {
+        long key = canonical(id);
+        if (key != NONE || id == null || id.isEmpty()) {
+            return key;
+        }
+        return registered.computeIfAbsent(id, k -> {
+            long registeredKey = pack(REGISTERED_TAG, nextRegistered.getAndIncrement());
+            registeredIds.put(registeredKey, k);
+            return registeredKey;
+        });
+    }
+
+    /**
+     * Key of an ID for reads: never registers, so unknown IDs cannot grow the registry
+     * @return the key, or {@link #NONE} if no entity can have this ID
+     */
+    public static long lookup(String id) {
+        long key = canonical(id);
+        if (key != NONE || id == null) {
+            return key;
+        }
+        Long registeredKey = registered.get(id);
+        return registeredKey == null ? NONE : registeredKey;
+    }
+
+    /**
+     * The ID string of a key, or null for {@link #NONE}
+     */
+    public static String decode(long key) {
+        if (key == NONE) {
+            return null;
+        }
+        long tag = key >>> NUMBER_BITS;
+        if (tag == REGISTERED_TAG) {
+            return registeredIds.get(key);
+        }
+        return IdType.values()[(int) tag - 1].format(key & NUMBER_MASK);
+    }
+
+    /**
+     * Type of a canonical ID, or null for registered ones
+     */
+    public IdType type() {
+        long tag = value >>> NUMBER_BITS;
+        return tag == REGISTERED_TAG || value == NONE ? null : IdType.values()[(int) tag - 1];
+    }
+
+    public long number() {
+        return value & NUMBER_MASK;
+    }
+
+    @Override
+    public int compareTo(EntityId other) {
+        return Long.compare(value, other.value);
+    }
+
+    @Override
+    public String toString() {
+        return decode(value);
+    }
+
+    // Packed key if the ID is exactly prefix + number without leading zeros, else NONE
+    private static long canonical(String id) {
+        IdType type = IdType.of(id);
+        if (type == null) {
+            return NONE;
+        }
+        long number = type.parseNumber(id);
+        int firstDigit = type.getPrefix().length();
+        boolean leadingZero = id.length() > firstDigit + 1 && id.charAt(firstDigit) == '0';
+        if (number < 0 || number > NUMBER_MASK || leadingZero) {
+            return NONE;
+        }
+        return pack(type.ordinal() + 1, number);
+    }
+
+    private static long pack(long tag, long number) {
+        return (tag << NUMBER_BITS) | number;
+    }
+}
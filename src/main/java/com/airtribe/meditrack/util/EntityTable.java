@@ -0,0 +1,55 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Storage behind a {@link DataStore}: entities by packed ID key, plus key order for pagination
+ * @param <T> the type of entity stored
+ */
+interface EntityTable<T> {
+
+    T get(long key);
+
+    void put(long key, T entity);
+
+    /**
+     * @return true if nothing was stored under the key and the entity was added
+     */
+    boolean putIfAbsent(long key, T entity);
+
+    /**
+     * Store the entity only if the key is already present
+     */
+    void replace(long key, T entity);
+
+    /**
+     * Recompute a present entity; returning null removes it
+     * @return the new value, or null if absent or removed
+     */
+    T computeIfPresent(long key, UnaryOperator<T> remapping);
+
+    void remove(long key);
+
+    boolean containsKey(long key);
+
+    int size();
+
+    List<T> values();
+
+    Stream<T> stream();
+
+    Iterator<T> iterator();
+
+    /**
+     * Up to limit entities with keys greater than afterKey, in key order
+     */
+    List<T> after(long afterKey, int limit);
+
+    /**
+     * Whether any stored key is greater than the given one
+     */
+    boolean hasAfter(long key);
+}
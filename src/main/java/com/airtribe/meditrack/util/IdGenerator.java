@@ -1,26 +1,77 @@
 package com.airtribe.meditrack.util;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import com.airtribe.meditrack.constants.Constants;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Singleton utility class for generating unique IDs
  * Demonstrates both eager and lazy initialization
+ * Each thread leases a block of {@link Constants#ID_BLOCK_SIZE} numbers per type and
+ * hands them out without touching the shared counter, so concurrent imports do not
+ * contend on it. IDs are unique but only ordered within one thread's block.
  */
 public class IdGenerator {
     // Eager initialization singleton instance
     private static final IdGenerator INSTANCE = new IdGenerator();
     
-    private final AtomicInteger doctorCounter;
-    private final AtomicInteger patientCounter;
-    private final AtomicInteger appointmentCounter;
-    private final AtomicInteger billCounter;
+    private final Map<IdType, Sequence> sequences = new EnumMap<>(IdType.class);
+
+    // Numbers one thread may still hand out: [next, end)
+    private static final class Lease {
+        private long next;
+        private long end;
+        private int epoch = -1;
+    }
+
+    private static final class Sequence {
+        // Highest number leased or seen so far
+        private final AtomicLong last;
+        // Bumped when loaded IDs move the counter, so leases taken before are dropped
+        private volatile int epoch;
+        private final ThreadLocal<Lease> leases = ThreadLocal.withInitial(Lease::new);
+
+        Sequence(IdType type) {
+            this.last = new AtomicLong(type.getFirstNumber() - 1);
+        }
+
+        long next() {
+            Lease lease = leases.get();
+            while (true) {
+                int current = epoch;
+                if (lease.next != lease.end && lease.epoch == current) {
+                    return lease.next++;
+                }
+                long start = reserve(Constants.ID_BLOCK_SIZE);
+                // advancePast moves the counter before bumping the epoch, so an unchanged
+                // epoch means the block was reserved after any floor it had published;
+                // otherwise the block may lie below the new floor and is dropped
+                if (epoch == current) {
+                    lease.next = start;
+                    lease.end = start + Constants.ID_BLOCK_SIZE;
+                    lease.epoch = current;
+                }
+            }
+        }
+
+        long reserve(int count) {
+            return last.getAndAdd(count) + 1;
+        }
+
+        // The counter moves first: next() relies on that order (see above)
+        synchronized void advancePast(long number) {
+            last.accumulateAndGet(number, Math::max);
+            epoch++;
+        }
+    }
 
     // Private constructor for singleton
     private IdGenerator() {
-        this.doctorCounter = new AtomicInteger(1000);
-        this.patientCounter = new AtomicInteger(2000);
-        this.appointmentCounter = new AtomicInteger(3000);
-        this.billCounter = new AtomicInteger(4000);
+        for (IdType type : IdType.values()) {
+            sequences.put(type, new Sequence(type));
+        }
     }
 
     /**
@@ -32,19 +83,60 @@ public class IdGenerator {
 
     // Instance methods for ID generation
     public String generateDoctorId() {
-        return "DOC" + doctorCounter.incrementAndGet();
+        return generateId(IdType.DOCTOR);
     }
 
     public String generatePatientId() {
-        return "PAT" + patientCounter.incrementAndGet();
+        return generateId(IdType.PATIENT);
     }
 
     public String generateAppointmentId() {
-        return "APT" + appointmentCounter.incrementAndGet();
+        return generateId(IdType.APPOINTMENT);
     }
 
     public String generateBillId() {
-        return "BILL" + billCounter.incrementAndGet();
+        return generateId(IdType.BILL);
+    }
+
+    public String generateId(IdType type) {
+        return type.format(nextNumber(type));
+    }
+
+    /**
+     * Next sequence number of the type, for callers that do not need the ID string
+     */
+    public long nextNumber(IdType type) {
+        return sequences.get(type).next();
+    }
+
+    /**
+     * Reserve a contiguous range of numbers straight from the shared counter
+     * @return the first number of the range; the range ends at first + count - 1
+     */
+    public long reserve(IdType type, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        return sequences.get(type).reserve(count);
+    }
+
+    /**
+     * Make sure no future ID repeats the given one, e.g. after loading stored data
+     * IDs that do not follow a generated format (prefix + digits) are ignored.
+     */
+    public void advancePast(String id) {
+        IdType type = IdType.of(id);
+        long number = type == null ? -1 : type.parseNumber(id);
+        if (number >= 0) {
+            advancePast(type, number);
+        }
+    }
+
+    /**
+     * Move the counter of one type past the given number; bulk loads call this once per type
+     */
+    public void advancePast(IdType type, long number) {
+        sequences.get(type).advancePast(number);
     }
 
     // Static methods for convenience (delegates to singleton instance)
@@ -0,0 +1,71 @@
+package com.airtribe.meditrack.util;
+
+/**
+ * The kinds of generated IDs: a prefix followed by a decimal sequence number
+ */
+public enum IdType {
+    DOCTOR("DOC", 1000),
+    PATIENT("PAT", 2000),
+    APPOINTMENT("APT", 3000),
+    BILL("BILL", 4000);
+
+    // Longest digit run that always fits in a long
+    private static final int MAX_DIGITS = 18;
+
+    private final String prefix;
+    private final long firstNumber;
+
+    IdType(String prefix, long base) {
+        this.prefix = prefix;
+        this.firstNumber = base + 1;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Number of the first ID handed out by a fresh generator
+     */
+    public long getFirstNumber() {
+        return firstNumber;
+    }
+
+    public String format(long number) {
+        return prefix + number;
+    }
+
+    /**
+     * Sequence number of an ID of this type
+     * @return the number, or -1 if the ID is not a prefix followed by digits
+     */
+    public long parseNumber(String id) {
+        int length = id == null ? 0 : id.length() - prefix.length();
+        if (length <= 0 || length > MAX_DIGITS || !id.startsWith(prefix)) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * The type whose prefix the ID starts with, or null
+     */
+    public static IdType of(String id) {
+        if (id != null) {
+            for (IdType type : values()) {
+                if (id.startsWith(type.prefix)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.MedicalEntity;
+
+/**
+ * Thread-safe DataStore backed by an open-addressing table of primitive long keys
+ * A drop-in alternative to {@link ConcurrentDataStore} that stores no boxed key,
+ * map node or sorted-set node per entity and grows without a full rehash pause.
+ * Lookups are lock-free unless they overlap a write. Streams and iterators
+ * work on a snapshot of the values, and the first page after keys were added or
+ * removed sorts the keys once.
+ * @param <T> the type of entity to store
+ */
+public class LongHashDataStore<T extends MedicalEntity> extends DataStore<T> {
+
+    public LongHashDataStore() {
+        super(new LongHashTable<>());
+    }
+}
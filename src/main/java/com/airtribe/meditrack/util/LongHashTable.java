@@ -0,0 +1,451 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Thread-safe open-addressing hash table from primitive long keys to entities
+ * Keys and values live in two parallel arrays probed linearly, so there is no
+ * boxed key and no node object per entry. Deletes shift later entries back
+ * instead of leaving tombstones.
+ * Growing never rehashes everything at once: the full table is kept as a
+ * draining table and every write moves a few of its slots into the new one,
+ * while lookups check both. Reads are optimistic (no lock taken unless a write
+ * overlaps); writes take a StampedLock write lock.
+ * Streams walk the slot arrays in place under one read lock, so a stream
+ * pipeline must not write to this table. Short-circuiting stream operations and
+ * iterators work on a snapshot of the values, which the caller may write through.
+ * Pagination uses a sorted copy of the keys, rebuilt on the first page request
+ * after keys were added or removed.
+ * @param <T> the type of entity stored
+ */
+final class LongHashTable<T> implements EntityTable<T> {
+    private static final int INITIAL_CAPACITY = 16;
+    // Slots moved from the draining table per write; well ahead of the fill rate
+    private static final int MIGRATION_STEP = 8;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    // Marks a draining-table slot whose entry has moved or been removed; keeps probe chains intact
+    private static final Object MOVED = new Object();
+
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+
+        int indexOf(long key) {
+            // Bounded so an optimistic read of a table mid-write cannot spin forever
+            for (int i = slot(key, mask), probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+                Object value = values[i];
+                if (value == null) {
+                    return -1;
+                }
+                if (value != MOVED && keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private record SortedKeys(long version, long[] keys) {
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private Table table = new Table(INITIAL_CAPACITY);
+    private Table draining;
+    private int migrated;
+    private int size;
+    // Bumped when a key is added or removed; tells when the sorted keys are stale
+    private long version;
+    private volatile SortedKeys sortedKeys;
+
+    @Override
+    public T get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        Object value = find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return cast(value);
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public void put(long key, T entity) {
+        long stamp = lock.writeLock();
+        try {
+            store(key, entity);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(long key, T entity) {
+        long stamp = lock.writeLock();
+        try {
+            if (find(key) != null) {
+                return false;
+            }
+            store(key, entity);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void replace(long key, T entity) {
+        long stamp = lock.writeLock();
+        try {
+            if (find(key) != null) {
+                store(key, entity);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public T computeIfPresent(long key, UnaryOperator<T> remapping) {
+        long stamp = lock.writeLock();
+        try {
+            T current = cast(find(key));
+            if (current == null) {
+                return null;
+            }
+            T result = remapping.apply(current);
+            if (result == null) {
+                delete(key);
+            } else {
+                store(key, result);
+            }
+            return result;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            delete(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<T> values() {
+        long stamp = lock.readLock();
+        try {
+            List<T> values = new ArrayList<>(size);
+            collect(table, values);
+            if (draining != null) {
+                collect(draining, values);
+            }
+            return values;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return StreamSupport.stream(new SlotSpliterator(), false);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Collections.unmodifiableList(values()).iterator();
+    }
+
+    @Override
+    public List<T> after(long afterKey, int limit) {
+        long stamp = lock.readLock();
+        try {
+            long[] keys = sortedKeys().keys();
+            List<T> items = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+            for (int i = firstAfter(keys, afterKey); i < keys.length && items.size() < limit; i++) {
+                items.add(cast(find(keys[i])));
+            }
+            return items;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean hasAfter(long key) {
+        long stamp = lock.readLock();
+        try {
+            long[] keys = sortedKeys().keys();
+            return firstAfter(keys, key) < keys.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Callers hold a lock or validate an optimistic stamp afterwards
+    private Object find(long key) {
+        Table current = table;
+        int index = current.indexOf(key);
+        if (index >= 0) {
+            return current.values[index];
+        }
+        Table old = draining;
+        if (old != null) {
+            index = old.indexOf(key);
+            if (index >= 0) {
+                return old.values[index];
+            }
+        }
+        return null;
+    }
+
+    // Callers hold the write lock
+    private void store(long key, Object value) {
+        boolean added = insert(table, key, value);
+        if (draining != null) {
+            int index = draining.indexOf(key);
+            if (index >= 0) {
+                // The key moves to the new table ahead of the migration cursor
+                draining.values[index] = MOVED;
+                added = false;
+            }
+        }
+        if (added) {
+            size++;
+            version++;
+        }
+        afterWrite();
+    }
+
+    private void delete(long key) {
+        int index = table.indexOf(key);
+        if (index >= 0) {
+            shiftBack(table, index);
+            size--;
+            version++;
+        } else if (draining != null && (index = draining.indexOf(key)) >= 0) {
+            draining.values[index] = MOVED;
+            size--;
+            version++;
+        }
+        afterWrite();
+    }
+
+    private void afterWrite() {
+        if (draining != null) {
+            migrate(MIGRATION_STEP);
+        }
+        if ((long) size * 4 > (long) table.values.length * 3) {
+            if (draining != null) {
+                // Cannot happen at the migration rate above, but never drain two tables
+                migrate(draining.values.length);
+            }
+            draining = table;
+            table = new Table(table.values.length * 2);
+            migrated = 0;
+        }
+    }
+
+    private void migrate(int slots) {
+        Table old = draining;
+        int end = Math.min(old.values.length, migrated + slots);
+        for (int i = migrated; i < end; i++) {
+            Object value = old.values[i];
+            if (value != null && value != MOVED) {
+                insert(table, old.keys[i], value);
+                old.values[i] = MOVED;
+            }
+        }
+        migrated = end;
+        if (migrated == old.values.length) {
+            draining = null;
+        }
+    }
+
+    // Returns true if the key was not in the table yet
+    private static boolean insert(Table table, long key, Object value) {
+        int mask = table.mask;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            Object current = table.values[i];
+            if (current == null) {
+                table.keys[i] = key;
+                table.values[i] = value;
+                return true;
+            }
+            if (table.keys[i] == key) {
+                table.values[i] = value;
+                return false;
+            }
+        }
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the gap
+    private static void shiftBack(Table table, int index) {
+        int mask = table.mask;
+        int gap = index;
+        for (int i = (index + 1) & mask; table.values[i] != null; i = (i + 1) & mask) {
+            int home = slot(table.keys[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                table.keys[gap] = table.keys[i];
+                table.values[gap] = table.values[i];
+                gap = i;
+            }
+        }
+        table.values[gap] = null;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    // Callers hold the read lock, so version cannot change underneath
+    private SortedKeys sortedKeys() {
+        SortedKeys sorted = sortedKeys;
+        if (sorted != null && sorted.version() == version) {
+            return sorted;
+        }
+        long[] keys = new long[size];
+        int count = collectKeys(table, keys, 0);
+        if (draining != null) {
+            collectKeys(draining, keys, count);
+        }
+        Arrays.sort(keys);
+        sorted = new SortedKeys(version, keys);
+        sortedKeys = sorted;
+        return sorted;
+    }
+
+    private static int collectKeys(Table table, long[] into, int from) {
+        int count = from;
+        for (int i = 0; i < table.values.length; i++) {
+            Object value = table.values[i];
+            if (value != null && value != MOVED) {
+                into[count++] = table.keys[i];
+            }
+        }
+        return count;
+    }
+
+    private static <T> void collect(Table table, List<T> into) {
+        for (Object value : table.values) {
+            if (value != null && value != MOVED) {
+                into.add(cast(value));
+            }
+        }
+    }
+
+    private static <T> void walk(Table table, Consumer<? super T> action) {
+        for (Object value : table.values) {
+            if (value != null && value != MOVED) {
+                action.accept(cast(value));
+            }
+        }
+    }
+
+    private static int firstAfter(long[] keys, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Traverses the slot arrays without copying them when the stream consumes every
+     * value; stepping one value at a time cannot keep the lock between calls, so it
+     * falls back to a snapshot
+     */
+    private final class SlotSpliterator implements Spliterator<T> {
+        private Spliterator<T> snapshot;
+        private boolean consumed;
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (snapshot == null) {
+                if (consumed) {
+                    return false;
+                }
+                snapshot = values().spliterator();
+            }
+            return snapshot.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (snapshot != null) {
+                snapshot.forEachRemaining(action);
+                return;
+            }
+            if (consumed) {
+                return;
+            }
+            consumed = true;
+            long stamp = lock.readLock();
+            try {
+                walk(table, action);
+                if (draining != null) {
+                    walk(draining, action);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return snapshot != null ? snapshot.estimateSize() : consumed ? 0 : size();
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Entity table over a java.util.Map, with a sorted key set next to it for pagination
+ * Thread safety is that of the supplied map and set. The key set is only changed
+ * from inside the map's compute functions, so with a ConcurrentHashMap a racing
+ * remove and re-add of one key cannot leave the map and the key set disagreeing.
+ * @param <T> the type of entity stored
+ */
+class MapEntityTable<T> implements EntityTable<T> {
+    private final Map<Long, T> dataMap;
+    private final NavigableSet<Long> keys;
+
+    MapEntityTable(Map<Long, T> dataMap, NavigableSet<Long> keys) {
+        this.dataMap = dataMap;
+        this.keys = keys;
+    }
+
+    @Override
+    public T get(long key) {
+        return dataMap.get(key);
+    }
+
+    @Override
+    public void put(long key, T entity) {
+        // The key set reuses the map's boxed key
+        dataMap.compute(key, (boxed, current) -> {
+            keys.add(boxed);
+            return entity;
+        });
+    }
+
+    @Override
+    public boolean putIfAbsent(long key, T entity) {
+        boolean[] added = new boolean[1];
+        dataMap.compute(key, (boxed, current) -> {
+            if (current != null) {
+                return current;
+            }
+            keys.add(boxed);
+            added[0] = true;
+            return entity;
+        });
+        return added[0];
+    }
+
+    @Override
+    public void replace(long key, T entity) {
+        dataMap.replace(key, entity);
+    }
+
+    @Override
+    public T computeIfPresent(long key, UnaryOperator<T> remapping) {
+        return dataMap.computeIfPresent(key, (boxed, entity) -> {
+            T result = remapping.apply(entity);
+            if (result == null) {
+                keys.remove(boxed);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public void remove(long key) {
+        dataMap.computeIfPresent(key, (boxed, entity) -> {
+            keys.remove(boxed);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return dataMap.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return dataMap.size();
+    }
+
+    @Override
+    public List<T> values() {
+        return new ArrayList<>(dataMap.values());
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return dataMap.values().stream();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return Collections.unmodifiableCollection(dataMap.values()).iterator();
+    }
+
+    @Override
+    public List<T> after(long afterKey, int limit) {
+        List<T> items = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        for (Long key : keys.tailSet(afterKey, false)) {
+            if (items.size() >= limit) {
+                break;
+            }
+            T entity = dataMap.get(key);
+            if (entity != null) {
+                items.add(entity);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public boolean hasAfter(long key) {
+        return keys.higher(key) != null;
+    }
+}
@@ -0,0 +1,137 @@
+package com.airtribe.meditrack.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact amount of money in paise (1/100 rupee), held in a long
+ * Sums never drift the way repeated double additions do. The only rounding is
+ * in {@link #ofRupees(double)} and {@link #applyRate(long, RoundingMode)}, and
+ * it follows java.math.RoundingMode exactly. GST uses {@link #GST_ROUNDING}:
+ * half up (away from zero) to the nearest paisa.
+ * The static methods work on raw paise so that hot loops over primitive columns
+ * never allocate; their loops are plain enough for the JIT to vectorize.
+ * @param paise the amount in paise
+ */
+public record Money(long paise) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+    public static final RoundingMode GST_ROUNDING = RoundingMode.HALF_UP;
+
+    private static final long PAISE_PER_RUPEE = 100;
+    private static final long BASIS_POINTS = 10_000;
+
+    public static Money ofPaise(long paise) {
+        return new Money(paise);
+    }
+
+    /**
+     * Rounds half up to the nearest paisa
+     */
+    public static Money ofRupees(double rupees) {
+        return new Money(toPaise(rupees));
+    }
+
+    /**
+     * Rupees to paise, rounding the decimal value as written (0.285 becomes 29, not 28)
+     */
+    public static long toPaise(double rupees) {
+        double scaled = rupees * PAISE_PER_RUPEE;
+        if (scaled == Math.rint(scaled) && Math.abs(scaled) < 0x1p52) {
+            return (long) scaled;
+        }
+        return BigDecimal.valueOf(rupees).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toRupees(long paise) {
+        return (double) paise / PAISE_PER_RUPEE;
+    }
+
+    public double toRupees() {
+        return toRupees(paise);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(paise, factor));
+    }
+
+    /**
+     * This amount times a rate given in basis points (1800 = 18%), rounded to the paisa
+     */
+    public Money applyRate(long basisPoints, RoundingMode rounding) {
+        return new Money(applyRate(paise, basisPoints, rounding));
+    }
+
+    /**
+     * GST on this amount at the given rate, rounded with {@link #GST_ROUNDING}
+     */
+    public Money gst(long basisPoints) {
+        return applyRate(basisPoints, GST_ROUNDING);
+    }
+
+    public static long applyRate(long paise, long basisPoints, RoundingMode rounding) {
+        long scaled = Math.multiplyExact(paise, basisPoints);
+        long quotient = scaled / BASIS_POINTS;
+        long remainder = Math.abs(scaled % BASIS_POINTS);
+        if (remainder == 0) {
+            return quotient;
+        }
+        long twice = 2 * remainder;
+        boolean awayFromZero = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> scaled > 0;
+            case FLOOR -> scaled < 0;
+            case HALF_UP -> twice >= BASIS_POINTS;
+            case HALF_DOWN -> twice > BASIS_POINTS;
+            case HALF_EVEN -> twice > BASIS_POINTS || (twice == BASIS_POINTS && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding needed for " + scaled + " / " + BASIS_POINTS);
+        };
+        return awayFromZero ? quotient + Long.signum(scaled) : quotient;
+    }
+
+    /**
+     * Sum of a column of amounts in paise, over [from, to)
+     */
+    public static long sum(long[] paise, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += paise[i];
+        }
+        return total;
+    }
+
+    /**
+     * Sum of the amounts whose key column holds the given key, over [from, to)
+     * Branch-free: non-matching rows are masked to zero instead of skipped.
+     */
+    public static long sumWhere(long[] paise, byte[] keys, byte key, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            long match = keys[i] == key ? -1L : 0L;
+            total += paise[i] & match;
+        }
+        return total;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    /**
+     * Rupees with exactly two decimals, e.g. "₹1239.05" or "-₹0.50"
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(paise);
+        return String.format("%s₹%d.%02d", paise < 0 ? "-" : "", abs / PAISE_PER_RUPEE, abs % PAISE_PER_RUPEE);
+    }
+}
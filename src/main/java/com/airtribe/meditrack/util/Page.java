@@ -0,0 +1,16 @@
+package com.airtribe.meditrack.util;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing
+ * @param items the entities on this page, in ID order
+ * @param nextCursor pass to the next call to continue after this page; null on the last page
+ * @param <T> the type of entity listed
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,174 @@
+package com.airtribe.meditrack.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parses one large CSV file on several threads
+ * The file is split into byte ranges aligned on line breaks, each range is
+ * memory-mapped and parsed independently, and parsed entities are handed to a
+ * thread-safe sink. Line breaks inside quoted fields are only supported within
+ * a chunk, so this mode is meant for files without free-text columns
+ * (appointments, bills).
+ */
+public class ParallelCSVReader {
+    // Keep chunks well below the 2 GB limit of a single mapping
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+    private static final long MIN_CHUNK_BYTES = 1024L * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int DECODE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Parse the file in parallel
+     * @param parser converts a record to an entity; null results are skipped
+     * @param sink receives entities from several threads concurrently
+     * @return the number of records read
+     */
+    public static <T> long readCSV(String filePath, int parallelism,
+                                   Function<String[], T> parser, Consumer<T> sink) throws IOException {
+        return readCSV(filePath, parallelism, record -> {
+            T entity = parser.apply(record);
+            if (entity != null) {
+                sink.accept(entity);
+            }
+        });
+    }
+
+    public static long readCSV(String filePath, int parallelism, Consumer<String[]> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel, parallelism);
+            if (chunks.size() == 1) {
+                long[] only = chunks.get(0);
+                return parseChunk(channel, only[0], only[1], consumer);
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, chunks.size()));
+            try {
+                List<Future<Long>> futures = new ArrayList<>(chunks.size());
+                for (long[] chunk : chunks) {
+                    futures.add(executor.submit(() -> parseChunk(channel, chunk[0], chunk[1], consumer)));
+                }
+                long total = 0;
+                for (Future<Long> future : futures) {
+                    total += await(future);
+                }
+                return total;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    // Chunk boundaries as [start, end) pairs, each end placed just after a line break
+    private static List<long[]> split(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long target = Math.max(MIN_CHUNK_BYTES, size / Math.max(1, parallelism * CHUNKS_PER_THREAD));
+        target = Math.min(target, MAX_CHUNK_BYTES);
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new long[] { 0, 0 });
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static long parseChunk(FileChannel channel, long start, long end,
+                                   Consumer<String[]> consumer) throws IOException {
+        if (end <= start) {
+            return 0;
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        CharBuffer chars = CharBuffer.allocate(DECODE_BUFFER_SIZE);
+        CSVUtil.RecordParser parser = new CSVUtil.RecordParser(consumer);
+
+        // Chunks start and end on line breaks, so no UTF-8 sequence is split between them
+        while (true) {
+            CoderResult result = decoder.decode(mapped, chars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            chars.flip();
+            parser.feed(chars.array(), 0, chars.limit());
+            chars.clear();
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+        CoderResult flushed = decoder.flush(chars);
+        if (flushed.isError()) {
+            throw new CharacterCodingException();
+        }
+        chars.flip();
+        parser.feed(chars.array(), 0, chars.limit());
+        return parser.finish();
+    }
+
+    private static long await(Future<Long> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing CSV", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Failed to parse CSV chunk", cause);
+        }
+    }
+
+    private ParallelCSVReader() {
+        // Prevent instantiation
+    }
+}
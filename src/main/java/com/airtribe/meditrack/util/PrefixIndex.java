@@ -0,0 +1,209 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.MedicalEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive prefix trie for autocomplete, ranked by most recent update
+ * Every node caches the most recently updated entries of its subtree, so a
+ * top-K lookup only walks the prefix and reads one cache: latency depends on the
+ * prefix length, not on how many entities share the prefix. Caches hold twice
+ * the largest K so that removals rarely drain them; a drained cache that may be
+ * missing entries is refilled from its subtree on the next lookup.
+ * @param <T> the type of entity indexed
+ */
+public class PrefixIndex<T extends MedicalEntity> {
+    public static final int MAX_RESULTS = 10;
+    private static final int CACHE_SIZE = 2 * MAX_RESULTS;
+
+    private static final Comparator<Entry> MOST_RECENT_FIRST = Comparator
+            .comparing(Entry::updatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Entry::id);
+
+    private record Entry(String id, LocalDateTime updatedAt) {
+    }
+
+    private record Indexed(Entry entry, List<String> terms) {
+    }
+
+    private static final class Node {
+        private Map<Character, Node> children;
+        private Set<Entry> terminal;
+        private final TreeSet<Entry> top = new TreeSet<>(MOST_RECENT_FIRST);
+        // False once some entry of the subtree is not in the cache; cached entries
+        // always rank before every entry that is missing from it
+        private boolean complete = true;
+        private int count;
+    }
+
+    private final Function<T, List<String>> terms;
+    private final Node root = new Node();
+    private final Map<String, Indexed> indexed = new HashMap<>();
+
+    /**
+     * @param terms extracts the strings an entity can be completed from; null values are skipped
+     */
+    public PrefixIndex(Function<T, List<String>> terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * Index the entity, replacing whatever was indexed for its ID before
+     */
+    public synchronized void add(T entity) {
+        remove(entity.getId());
+        Entry entry = new Entry(entity.getId(), entity.getUpdatedAt());
+        List<String> normalized = new ArrayList<>();
+        for (String term : terms.apply(entity)) {
+            if (term != null && !term.isEmpty()) {
+                String lower = term.toLowerCase();
+                if (!normalized.contains(lower)) {
+                    normalized.add(lower);
+                    insert(lower, entry);
+                }
+            }
+        }
+        indexed.put(entry.id(), new Indexed(entry, normalized));
+    }
+
+    public synchronized void remove(String id) {
+        Indexed previous = indexed.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            delete(term, previous.entry());
+        }
+    }
+
+    /**
+     * IDs of entities with a term starting with the prefix, most recently updated first
+     * @param limit at most {@link #MAX_RESULTS}
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        int k = Math.min(limit, MAX_RESULTS);
+        List<String> result = new ArrayList<>(Math.max(k, 0));
+        Node node = root;
+        String lower = prefix == null ? "" : prefix.toLowerCase();
+        for (int i = 0; i < lower.length() && node != null; i++) {
+            node = node.children == null ? null : node.children.get(lower.charAt(i));
+        }
+        if (node == null || k <= 0) {
+            return result;
+        }
+        if (!node.complete && node.top.size() < k) {
+            refill(node);
+        }
+        Iterator<Entry> entries = node.top.iterator();
+        while (entries.hasNext() && result.size() < k) {
+            result.add(entries.next().id());
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return indexed.size();
+    }
+
+    public synchronized void clear() {
+        root.children = null;
+        root.terminal = null;
+        root.top.clear();
+        root.complete = true;
+        root.count = 0;
+        indexed.clear();
+    }
+
+    private void insert(String term, Entry entry) {
+        Node node = root;
+        offer(node, entry);
+        for (int i = 0; i < term.length(); i++) {
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+            offer(node, entry);
+        }
+        if (node.terminal == null) {
+            node.terminal = new HashSet<>(2);
+        }
+        node.terminal.add(entry);
+    }
+
+    private void delete(String term, Entry entry) {
+        Node node = root;
+        withdraw(node, entry);
+        for (int i = 0; i < term.length() && node != null; i++) {
+            Node child = node.children == null ? null : node.children.get(term.charAt(i));
+            if (child == null) {
+                return;
+            }
+            withdraw(child, entry);
+            if (child.count == 0) {
+                // Nothing left below: drop the whole branch
+                node.children.remove(term.charAt(i));
+                return;
+            }
+            node = child;
+        }
+        if (node != null && node.terminal != null) {
+            node.terminal.remove(entry);
+        }
+    }
+
+    private static void offer(Node node, Entry entry) {
+        node.count++;
+        if (!node.complete && (node.top.isEmpty()
+                || MOST_RECENT_FIRST.compare(entry, node.top.last()) > 0)) {
+            // Might rank below entries that were evicted earlier
+            return;
+        }
+        node.top.add(entry);
+        if (node.top.size() > CACHE_SIZE) {
+            node.top.pollLast();
+            node.complete = false;
+        }
+    }
+
+    private static void withdraw(Node node, Entry entry) {
+        node.count--;
+        node.top.remove(entry);
+    }
+
+    // Rebuild a drained cache from every entry below the node
+    private static void refill(Node node) {
+        node.top.clear();
+        node.complete = collect(node, node.top);
+    }
+
+    // Returns false if any entry had to be evicted from the bounded set
+    private static boolean collect(Node node, TreeSet<Entry> into) {
+        boolean complete = true;
+        if (node.terminal != null) {
+            for (Entry entry : node.terminal) {
+                into.add(entry);
+                if (into.size() > CACHE_SIZE) {
+                    into.pollLast();
+                    complete = false;
+                }
+            }
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                complete &= collect(child, into);
+            }
+        }
+        return complete;
+    }
+}
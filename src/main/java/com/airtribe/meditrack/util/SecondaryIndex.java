@@ -0,0 +1,58 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.MedicalEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe multimap from an attribute value to the entities carrying it
+ * Used by services to answer "all X for key K" in O(k) instead of scanning the store.
+ * Entities are held per key by their compact ID key, so re-adding an updated
+ * instance replaces the old one.
+ * @param <K> the indexed attribute type
+ * @param <T> the type of entity indexed
+ */
+public class SecondaryIndex<K, T extends MedicalEntity> {
+    private final Map<K, Map<Long, T>> buckets = new ConcurrentHashMap<>();
+
+    public void add(K key, T entity) {
+        buckets.compute(key, (k, bucket) -> {
+            Map<Long, T> target = bucket != null ? bucket : new ConcurrentHashMap<>();
+            target.put(entity.getKey(), entity);
+            return target;
+        });
+    }
+
+    public void remove(K key, String id) {
+        remove(key, EntityId.lookup(id));
+    }
+
+    public void remove(K key, long entityKey) {
+        // Drop the bucket atomically once it becomes empty
+        buckets.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(entityKey);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    public List<T> get(K key) {
+        Map<Long, T> bucket = buckets.get(key);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(bucket.values());
+    }
+
+    public int count(K key) {
+        Map<Long, T> bucket = buckets.get(key);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+}
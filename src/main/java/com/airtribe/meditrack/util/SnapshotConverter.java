@@ -0,0 +1,104 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts between the CSV files and a binary snapshot, streaming record by record
+ * Usage: SnapshotConverter (to-snapshot | to-csv) [snapshotFile]
+ */
+public class SnapshotConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || !(args[0].equals("to-snapshot") || args[0].equals("to-csv"))) {
+            System.out.println("Usage: SnapshotConverter (to-snapshot | to-csv) [snapshotFile]");
+            return;
+        }
+        Path snapshot = Path.of(args.length > 1 ? args[1] : Constants.SNAPSHOT_FILE);
+        long records = args[0].equals("to-snapshot")
+                ? csvToSnapshot(Constants.DOCTORS_FILE, Constants.PATIENTS_FILE,
+                        Constants.APPOINTMENTS_FILE, Constants.BILLS_FILE, snapshot)
+                : snapshotToCSV(snapshot, Constants.DOCTORS_FILE, Constants.PATIENTS_FILE,
+                        Constants.APPOINTMENTS_FILE, Constants.BILLS_FILE);
+        System.out.println("✓ Converted " + records + " records");
+    }
+
+    /**
+     * Write all CSV files (missing ones are skipped) into one snapshot
+     * @return the number of records written
+     */
+    public static long csvToSnapshot(String doctorsFile, String patientsFile, String appointmentsFile,
+                                     String billsFile, Path snapshot) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(snapshot)) {
+            if (new File(doctorsFile).exists()) {
+                CSVUtil.readCSV(doctorsFile, record -> {
+                    Doctor doctor = Doctor.fromCSV(record);
+                    if (doctor != null) writer.writeDoctor(doctor);
+                });
+            }
+            if (new File(patientsFile).exists()) {
+                CSVUtil.readCSV(patientsFile, record -> {
+                    Patient patient = Patient.fromCSV(record);
+                    if (patient != null) writer.writePatient(patient);
+                });
+            }
+            if (new File(appointmentsFile).exists()) {
+                CSVUtil.readCSV(appointmentsFile, record -> {
+                    Appointment appointment = Appointment.fromCSV(record);
+                    if (appointment != null) writer.writeAppointment(appointment);
+                });
+            }
+            if (new File(billsFile).exists()) {
+                CSVUtil.readCSV(billsFile, record -> {
+                    Bill bill = Bill.fromCSV(record);
+                    if (bill != null) writer.writeBill(bill);
+                });
+            }
+            writer.commit();
+            return writer.getRecordCount();
+        }
+    }
+
+    /**
+     * Expand a snapshot back into the four CSV files
+     * @return the number of records written
+     */
+    public static long snapshotToCSV(Path snapshot, String doctorsFile, String patientsFile,
+                                     String appointmentsFile, String billsFile) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(snapshot);
+             BufferedWriter doctors = Files.newBufferedWriter(Path.of(doctorsFile), StandardCharsets.UTF_8);
+             BufferedWriter patients = Files.newBufferedWriter(Path.of(patientsFile), StandardCharsets.UTF_8);
+             BufferedWriter appointments = Files.newBufferedWriter(Path.of(appointmentsFile), StandardCharsets.UTF_8);
+             BufferedWriter bills = Files.newBufferedWriter(Path.of(billsFile), StandardCharsets.UTF_8)) {
+            return reader.readAll(
+                    doctor -> writeLine(doctors, doctor.toCSVRecord()),
+                    patient -> writeLine(patients, patient.toCSVRecord()),
+                    appointment -> writeLine(appointments, appointment.toCSVRecord()),
+                    bill -> writeLine(bills, bill.toCSVRecord()));
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, String[] record) {
+        try {
+            writer.write(CSVUtil.formatRecord(record));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SnapshotConverter() {
+        // Prevent instantiation
+    }
+}
@@ -0,0 +1,27 @@
+package com.airtribe.meditrack.util;
+
+/**
+ * Layout constants of the binary snapshot format
+ * A snapshot is a header (magic, version) followed by tagged records and an END tag.
+ * Strings are length-prefixed UTF-8, date-times are epoch seconds (UTC) plus nanos,
+ * and enums are stored as their ordinal.
+ * Version 2 appends each entity's creation and last-update times; version 1 is still read.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x4D545253; // "MTRS"
+    static final short VERSION = 2;
+    static final short FIRST_VERSION = 1;
+    static final short FIRST_TIMESTAMPED_VERSION = 2;
+
+    static final byte TAG_END = 0;
+    static final byte TAG_DOCTOR = 1;
+    static final byte TAG_PATIENT = 2;
+    static final byte TAG_APPOINTMENT = 3;
+    static final byte TAG_BILL = 4;
+
+    static final int NULL_LENGTH = -1;
+    static final int BUFFER_SIZE = 1 << 20;
+
+    private SnapshotFormat() {
+    }
+}
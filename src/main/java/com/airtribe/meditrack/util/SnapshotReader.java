@@ -0,0 +1,76 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Streams entities out of a binary snapshot file written by {@link SnapshotWriter}
+ */
+public class SnapshotReader implements Closeable {
+    private final FileChannel channel;
+    private final BinaryDecoder decoder;
+
+    public SnapshotReader(Path source) throws IOException {
+        this.channel = FileChannel.open(source, StandardOpenOption.READ);
+        this.decoder = new BinaryDecoder(channel, SnapshotFormat.BUFFER_SIZE);
+        try {
+            int magic = decoder.getInt();
+            short version = decoder.getShort();
+            if (magic != SnapshotFormat.MAGIC) {
+                throw new IOException("Not a MediTrack snapshot: " + source);
+            }
+            if (version < SnapshotFormat.FIRST_VERSION || version > SnapshotFormat.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + source);
+            }
+            decoder.setTimestamped(version >= SnapshotFormat.FIRST_TIMESTAMPED_VERSION);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read every record, dispatching each entity to the consumer for its type
+     * @return the number of records read
+     */
+    public long readAll(Consumer<Doctor> doctors, Consumer<Patient> patients,
+                        Consumer<Appointment> appointments, Consumer<Bill> bills) throws IOException {
+        long records = 0;
+        while (true) {
+            byte tag = decoder.getByte();
+            switch (tag) {
+                case SnapshotFormat.TAG_END:
+                    return records;
+                case SnapshotFormat.TAG_DOCTOR:
+                    doctors.accept(decoder.getDoctor());
+                    break;
+                case SnapshotFormat.TAG_PATIENT:
+                    patients.accept(decoder.getPatient());
+                    break;
+                case SnapshotFormat.TAG_APPOINTMENT:
+                    appointments.accept(decoder.getAppointment());
+                    break;
+                case SnapshotFormat.TAG_BILL:
+                    bills.accept(decoder.getBill());
+                    break;
+                default:
+                    throw new IOException("Corrupt snapshot: unknown record tag " + tag);
+            }
+            records++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,107 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams entities into a binary snapshot file
+ * Records are written to a temporary file that replaces the target only on
+ * {@link #commit()}. Closing without a commit (e.g. because writing threw)
+ * deletes the temporary file and leaves the previous snapshot untouched.
+ * Every writer gets its own uniquely named temporary file, so concurrent saves
+ * to the same target (e.g. a manual save during a background compaction) cannot
+ * overwrite each other's records; the last commit wins with a whole snapshot.
+ */
+public class SnapshotWriter implements Closeable {
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final BinaryEncoder encoder;
+    private long records;
+    private boolean committed;
+    private boolean closed;
+
+    public SnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        // Same directory as the target, so the commit can be an atomic rename
+        this.temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+        this.encoder = new BinaryEncoder(channel, SnapshotFormat.BUFFER_SIZE);
+        encoder.putInt(SnapshotFormat.MAGIC);
+        encoder.putShort(SnapshotFormat.VERSION);
+    }
+
+    public void writeDoctor(Doctor doctor) {
+        encoder.putByte(SnapshotFormat.TAG_DOCTOR);
+        encoder.putDoctor(doctor);
+        records++;
+    }
+
+    public void writePatient(Patient patient) {
+        encoder.putByte(SnapshotFormat.TAG_PATIENT);
+        encoder.putPatient(patient);
+        records++;
+    }
+
+    public void writeAppointment(Appointment appointment) {
+        encoder.putByte(SnapshotFormat.TAG_APPOINTMENT);
+        encoder.putAppointment(appointment);
+        records++;
+    }
+
+    public void writeBill(Bill bill) {
+        encoder.putByte(SnapshotFormat.TAG_BILL);
+        encoder.putBill(bill);
+        records++;
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Finish the snapshot and atomically replace the target with it
+     * Call only once every record has been written.
+     */
+    public void commit() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Snapshot writer already closed");
+        }
+        closed = true;
+        try {
+            encoder.putByte(SnapshotFormat.TAG_END);
+            encoder.flush();
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    /**
+     * Discard the temporary file unless {@link #commit()} succeeded
+     */
+    @Override
+    public void close() throws IOException {
+        if (committed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.MedicalEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Thread-safe inverted index from lower-cased character trigrams to entity IDs
+ * A keyword of three or more characters can only be contained in a field that
+ * holds every trigram of the keyword, so intersecting their postings yields a
+ * small candidate set that the caller verifies with the exact predicate.
+ * Trigrams are packed into a long (3 x 16-bit chars) to avoid String keys.
+ * @param <T> the type of entity indexed
+ */
+public class TrigramIndex<T extends MedicalEntity> {
+    public static final int GRAM_LENGTH = 3;
+
+    private final Function<T, String[]> fields;
+    private final Map<Long, Set<String>> postings = new ConcurrentHashMap<>();
+
+    // Trigrams each entity was indexed under, so an update can remove exactly those
+    private final Map<String, long[]> indexed = new ConcurrentHashMap<>();
+
+    /**
+     * @param fields extracts the searchable text of an entity; null values are skipped
+     */
+    public TrigramIndex(Function<T, String[]> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Index the entity, replacing whatever was indexed for its ID before
+     */
+    public void add(T entity) {
+        String id = entity.getId();
+        remove(id);
+        long[] grams = gramsOf(fields.apply(entity));
+        for (long gram : grams) {
+            postings.compute(gram, (k, ids) -> {
+                Set<String> target = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                target.add(id);
+                return target;
+            });
+        }
+        indexed.put(id, grams);
+    }
+
+    public void remove(String id) {
+        long[] grams = indexed.remove(id);
+        if (grams == null) {
+            return;
+        }
+        for (long gram : grams) {
+            postings.computeIfPresent(gram, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * IDs of entities with a field that may contain the keyword (case-insensitive)
+     * @return the candidates, or null if the keyword is too short to be looked up
+     */
+    public List<String> candidates(String keyword) {
+        if (keyword == null || keyword.length() < GRAM_LENGTH) {
+            return null;
+        }
+        long[] grams = gramsOf(new String[] { keyword });
+        if (grams.length == 0) {
+            return null;
+        }
+        List<Set<String>> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            lists.add(ids);
+        }
+
+        // Walk the rarest trigram and probe the others
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<String> smallest = lists.get(0);
+        List<String> result = new ArrayList<>(smallest.size());
+        for (String id : smallest) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return indexed.size();
+    }
+
+    public void clear() {
+        postings.clear();
+        indexed.clear();
+    }
+
+    // Distinct trigrams of all values; grams never span two values
+    private static long[] gramsOf(String[] values) {
+        String[] lower = new String[values.length];
+        int capacity = 0;
+        for (int v = 0; v < values.length; v++) {
+            if (values[v] != null) {
+                lower[v] = values[v].toLowerCase();
+                capacity += Math.max(0, lower[v].length() - GRAM_LENGTH + 1);
+            }
+        }
+        long[] grams = new long[capacity];
+        int count = 0;
+        for (String value : lower) {
+            if (value == null) {
+                continue;
+            }
+            for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+                grams[count++] = ((long) value.charAt(i) << 32)
+                        | ((long) value.charAt(i + 1) << 16)
+                        | value.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+}
@@ -1,5 +1,6 @@
 package com.airtribe.meditrack.util;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.exception.InvalidDataException;
 
 public class Validator {
@@ -23,7 +24,7 @@ public class Validator {
     }
 
     public static void validateAge(int age) throws InvalidDataException {
-        if (age < 0 || age > 150) {
+        if (age < Constants.MIN_AGE || age > Constants.MAX_AGE) {
             throw new InvalidDataException("Invalid age: " + age);
         }
     }
@@ -0,0 +1,409 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of service mutations with group commit
+ * Writers append a record and get a sequence number back without touching the disk;
+ * a single flusher thread writes everything pending in one batch, fsyncs once and
+ * wakes all writers whose records became durable. Each record is
+ * [int length][int crc32][byte operation][payload], so a torn tail after a crash
+ * is detected and dropped on replay.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int MAGIC = 0x4D54574C; // "MTWL"
+    private static final short VERSION = 1;
+    private static final int FILE_HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    public enum Operation {
+        ADD_DOCTOR, UPDATE_DOCTOR, DELETE_DOCTOR,
+        ADD_PATIENT, UPDATE_PATIENT, DELETE_PATIENT,
+        SCHEDULE_APPOINTMENT, UPDATE_APPOINTMENT,
+        CONFIRM_APPOINTMENT, COMPLETE_APPOINTMENT, CANCEL_APPOINTMENT,
+        ADD_BILL, UPDATE_BILL, PAY_BILL
+    }
+
+    /**
+     * Receives replayed records; the decoder is positioned at the payload
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(Operation operation, BinaryDecoder payload) throws IOException;
+    }
+
+    private final Path path;
+    private final long groupCommitNanos;
+    private final BinaryEncoder encoder = new BinaryEncoder(512);
+    private final CRC32 crc = new CRC32();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final Object ioLock = new Object();
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private List<ByteBuffer> pending = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private long recordsSinceRotation;
+    private long compactionThreshold = Long.MAX_VALUE;
+    private Runnable compactionTrigger;
+    private boolean closed;
+    private IOException failure;
+
+    private WriteAheadLog(Path path, FileChannel channel, long groupCommitMillis) {
+        this.path = path;
+        this.channel = channel;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMillis);
+        this.flusher = new Thread(this::flushLoop, "meditrack-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Open the log for appending, dropping any torn record at its tail
+     */
+    public static WriteAheadLog open(Path path, long groupCommitMillis) throws IOException {
+        FileChannel channel = openChannel(path);
+        return new WriteAheadLog(path, channel, groupCommitMillis);
+    }
+
+    /**
+     * Replay every intact record of the log in append order
+     * @return the number of records replayed
+     */
+    public static long replay(Path path, RecordHandler handler) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] count = new long[1];
+            scan(channel, (operation, payload) -> {
+                handler.handle(operation, payload);
+                count[0]++;
+            });
+            return count[0];
+        }
+    }
+
+    /**
+     * Run the trigger on every append once at least this many records have been
+     * appended since the last rotation or {@link #rearmCompaction()}
+     * The trigger is expected to ignore calls while a compaction is in progress.
+     */
+    public void setCompactionTrigger(long threshold, Runnable trigger) {
+        lock.lock();
+        try {
+            this.compactionThreshold = threshold;
+            this.compactionTrigger = trigger;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count towards the compaction threshold from zero again, e.g. once a compaction
+     * has finished or failed, so the next attempt waits for another threshold of records
+     */
+    public void rearmCompaction() {
+        lock.lock();
+        try {
+            recordsSinceRotation = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long append(Operation operation, Doctor doctor) {
+        return append(operation, encoder -> encoder.putDoctor(doctor));
+    }
+
+    public long append(Operation operation, Patient patient) {
+        return append(operation, encoder -> encoder.putPatient(patient));
+    }
+
+    public long append(Operation operation, Appointment appointment) {
+        return append(operation, encoder -> encoder.putAppointment(appointment));
+    }
+
+    public long append(Operation operation, Bill bill) {
+        return append(operation, encoder -> encoder.putBill(bill));
+    }
+
+    public long append(Operation operation, String id) {
+        return append(operation, encoder -> encoder.putString(id));
+    }
+
+    /**
+     * Block until the record with the given sequence number has been fsynced
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                durable.awaitUninterruptibly();
+            }
+            if (failure != null && durableSequence < sequence) {
+                throw new UncheckedIOException("Write-ahead log is no longer writable", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move the current log aside and continue in an empty one
+     * Everything appended so far is made durable first, so the archived log is
+     * complete; the caller snapshots the state and then deletes the archive.
+     */
+    public void rotate(Path archive) throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence < appendedSequence && failure == null) {
+                durable.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            synchronized (ioLock) {
+                channel.close();
+                Files.move(path, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = openChannel(path);
+            }
+            recordsSinceRotation = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private long append(Operation operation, Consumer<BinaryEncoder> body) {
+        Runnable trigger = null;
+        long sequence;
+        lock.lock();
+        try {
+            if (closed || failure != null) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            encoder.reset();
+            encoder.putByte((byte) operation.ordinal());
+            body.accept(encoder);
+            ByteBuffer payload = encoder.encoded();
+
+            crc.reset();
+            crc.update(payload.duplicate());
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.remaining());
+            record.putInt(payload.remaining());
+            record.putInt((int) crc.getValue());
+            record.put(payload);
+            record.flip();
+
+            if (pending.isEmpty()) {
+                pendingAvailable.signal();
+            }
+            pending.add(record);
+            sequence = ++appendedSequence;
+
+            // >= rather than ==: a compaction that failed or skipped the rotation must not disarm the trigger
+            if (++recordsSinceRotation >= compactionThreshold) {
+                trigger = compactionTrigger;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (trigger != null) {
+            trigger.run();
+        }
+        return sequence;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<ByteBuffer> batch;
+            long batchSequence;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Hold the batch open briefly so concurrent writers share one fsync
+                long remaining = groupCommitNanos;
+                while (remaining > 0 && !closed) {
+                    try {
+                        remaining = pendingAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                batchSequence = appendedSequence;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                synchronized (ioLock) {
+                    channel.write(batch.toArray(new ByteBuffer[0]));
+                    for (ByteBuffer record : batch) {
+                        while (record.hasRemaining()) {
+                            channel.write(record);
+                        }
+                    }
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSequence = batchSequence;
+                }
+                durable.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static FileChannel openChannel(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+                header.putInt(MAGIC).putShort(VERSION).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            } else {
+                long validEnd = scan(channel, (operation, payload) -> { });
+                channel.truncate(validEnd);
+            }
+            channel.position(channel.size());
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Walk intact records from the start; returns the offset just past the last intact one
+    private static long scan(FileChannel channel, RecordHandler handler) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        if (!readFully(channel, header, 0)) {
+            throw new IOException("Write-ahead log header is truncated");
+        }
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a MediTrack write-ahead log");
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported write-ahead log version " + version);
+        }
+
+        CRC32 checksum = new CRC32();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        long position = FILE_HEADER_BYTES;
+        long size = channel.size();
+        while (position + RECORD_HEADER_BYTES <= size) {
+            recordHeader.clear();
+            if (!readFully(channel, recordHeader, position)) {
+                break;
+            }
+            int length = recordHeader.getInt();
+            int expectedCrc = recordHeader.getInt();
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            if (!readFully(channel, payload, position + RECORD_HEADER_BYTES)) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != expectedCrc) {
+                break;
+            }
+            int ordinal = payload.get();
+            if (ordinal < 0 || ordinal >= OPERATIONS.length) {
+                break;
+            }
+            handler.handle(OPERATIONS[ordinal], new BinaryDecoder(payload));
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    // Fill the buffer from the given offset and flip it; false on end of file
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        buffer.flip();
+        return true;
+    }
+}